@@ -0,0 +1,103 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixture databases for the benchmarks. A pristine database per student count
+ * is generated once (fixed seed, so every machine gets the same data) and kept
+ * under bench.dir; each trial runs against a private copy of it, so the write
+ * benchmarks never change what the next run starts from.
+ *
+ * DatabaseManager reads its file name once, when the class is initialised, so
+ * {@link #openWorkingCopy} must run before anything touches DatabaseManager.
+ * That holds as long as JMH forks (the default), since every fork runs one
+ * parameter combination.
+ */
+final class BenchmarkDatabase {
+
+    static final String BILLED_SEMESTER = "Y1T1";
+    static final String UNBILLED_SEMESTER = "Y1T2";
+    static final long SEED = 20240601L;
+
+    private BenchmarkDatabase() {
+    }
+
+    static File dir() {
+        return new File(System.getProperty("bench.dir", "target/bench-db"));
+    }
+
+    /** Copies the pristine database for this size to a private file and points DatabaseManager at it. */
+    static File openWorkingCopy(int students) throws IOException {
+        File pristine = pristine(students);
+        File working = File.createTempFile("run-" + students + "-", ".db", dir());
+        working.deleteOnExit();
+        Files.copy(pristine.toPath(), working.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        System.setProperty("database.file", working.getPath());
+        return working;
+    }
+
+    static void deleteWorkingCopy(File working) {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            new File(working.getPath() + suffix).delete();
+        }
+    }
+
+    static Connection connect(File db) throws SQLException {
+        return DriverManager.getConnection("jdbc:sqlite:" + db.getAbsolutePath());
+    }
+
+    static synchronized File pristine(int students) throws IOException {
+        File dir = dir();
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        File file = new File(dir, "students-" + students + ".db");
+        if (file.isFile()) return file;
+
+        // SyntheticDataGenerator bills only the first semester, leaving UNBILLED_SEMESTER for the invoice run
+        File partial = new File(dir, file.getName() + ".partial");
+        partial.delete();
+        Object scale = Legacy.call(Legacy.method("SyntheticScale", "forStudents", int.class), null, students);
+        Object generator = Legacy.create("SyntheticDataGenerator", new Class<?>[]{scale.getClass(), long.class}, scale, SEED);
+        Object report = Legacy.call(Legacy.method(generator.getClass(), "generateInto", File.class), generator, partial);
+        if (!partial.renameTo(file)) throw new IOException("Cannot move " + partial + " to " + file);
+        System.out.println("Generated " + file);
+        System.out.println(report);
+        return file;
+    }
+
+    static final class PendingInvoice {
+        final int invoiceId;
+        final String studentId;
+
+        PendingInvoice(int invoiceId, String studentId) {
+            this.invoiceId = invoiceId;
+            this.studentId = studentId;
+        }
+    }
+
+    /** Invoices that still have a balance, for the payment benchmark. */
+    static List<PendingInvoice> pendingInvoices(File db) throws SQLException {
+        List<PendingInvoice> out = new ArrayList<>();
+        try (Connection conn = connect(db);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT invoice_id, student_id FROM Invoices WHERE status = 'PENDING' ORDER BY invoice_id")) {
+            while (rs.next()) {
+                out.add(new PendingInvoice(rs.getInt(1), rs.getString(2)));
+            }
+        }
+        return out;
+    }
+
+    static String studentId(int n) {
+        return String.format("S%07d", n);
+    }
+}
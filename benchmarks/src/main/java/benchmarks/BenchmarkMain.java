@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Same command line as org.openjdk.jmh.Main, except that results are written
+ * as JSON to target/jmh-result-&lt;timestamp&gt;.json unless -rf / -rff say
+ * otherwise, so every run leaves a file that can be compared with the last
+ * release's (e.g. with the JMH visualizer or a diff of the scores).
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        ResultFormatType format = ResultFormatType.JSON;
+        if (cli.getResultFormat().hasValue()) {
+            format = cli.getResultFormat().get();
+        } else {
+            options.resultFormat(format);
+        }
+        if (!cli.getResult().hasValue()) {
+            new File("target").mkdirs();
+            String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.result("target/jmh-result-" + stamp + "." + format.name().toLowerCase());
+        }
+        new Runner(options.build()).run();
+    }
+}
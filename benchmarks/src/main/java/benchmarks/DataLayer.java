@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** One DatabaseManager over a private copy of the fixture database for the given size. */
+@State(Scope.Benchmark)
+public class DataLayer {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    File db;
+    Object manager;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        db = BenchmarkDatabase.openWorkingCopy(students);
+        manager = Legacy.create("DatabaseManager", new Class<?>[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        BenchmarkDatabase.deleteWorkingCopy(db);
+    }
+
+    Method method(String name, Class<?>... params) {
+        return Legacy.method("DatabaseManager", name, params);
+    }
+}
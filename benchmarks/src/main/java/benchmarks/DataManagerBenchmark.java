@@ -0,0 +1,148 @@
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * File import and export through DataManager. No database is involved; the
+ * CSV input is generated from a fixed seed and the XML input is written from
+ * it with the exporter, so both inputs hold the same students.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataManagerBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    private File dir;
+    private File csv;
+    private File xml;
+    private File out;
+    private Object dataManager;
+    private Method loadFromCsv;
+    private Method loadFromXml;
+    private Method openJsonExport;
+    private Method openXmlExport;
+    private Method writeJson;
+    private Method writeXml;
+    private Collection<?> allFields;
+    private List<?> loaded;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        dir = Files.createTempDirectory(ensureDir(BenchmarkDatabase.dir()).toPath(), "files-").toFile();
+        csv = new File(dir, "students.csv");
+        xml = new File(dir, "students.xml");
+        out = new File(dir, "export.out");
+
+        Class<?> student = Legacy.type("Student");
+        dataManager = Legacy.create("DataManager", new Class<?>[0]);
+        loadFromCsv = Legacy.method("DataManager", "loadFromCsv", File.class);
+        loadFromXml = Legacy.method("DataManager", "loadFromXml", File.class);
+        openJsonExport = Legacy.method("DataManager", "openJsonExport", File.class, Collection.class, boolean.class);
+        openXmlExport = Legacy.method("DataManager", "openXmlExport", File.class);
+        writeJson = Legacy.method("StudentJsonWriter", "write", student);
+        writeXml = Legacy.method("StudentXmlWriter", "write", student);
+        Field fields = Legacy.type("StudentJsonWriter").getDeclaredField("ALL_FIELDS");
+        fields.setAccessible(true);
+        allFields = (Collection<?>) fields.get(null);
+
+        writeCsv(csv, students, new Random(BenchmarkDatabase.SEED));
+        loaded = (List<?>) Legacy.call(loadFromCsv, dataManager, csv);
+        export(openXmlExport, writeXml, xml);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() {
+        for (File f : new File[]{csv, xml, out}) {
+            f.delete();
+        }
+        dir.delete();
+    }
+
+    @Benchmark
+    public Object loadCsv() {
+        return Legacy.call(loadFromCsv, dataManager, csv);
+    }
+
+    @Benchmark
+    public Object loadXml() {
+        return Legacy.call(loadFromXml, dataManager, xml);
+    }
+
+    @Benchmark
+    public long exportJson() throws IOException {
+        return export(openJsonExport, writeJson, out, allFields, false);
+    }
+
+    @Benchmark
+    public long exportJsonGzip() throws IOException {
+        return export(openJsonExport, writeJson, out, allFields, true);
+    }
+
+    @Benchmark
+    public long exportXml() throws IOException {
+        return export(openXmlExport, writeXml, out);
+    }
+
+    private long export(Method open, Method write, File target, Object... extra) throws IOException {
+        Object[] args = new Object[extra.length + 1];
+        args[0] = target;
+        System.arraycopy(extra, 0, args, 1, extra.length);
+        try (Closeable writer = (Closeable) Legacy.call(open, dataManager, args)) {
+            for (Object s : loaded) {
+                Legacy.call(write, writer, s);
+            }
+        }
+        return target.length();
+    }
+
+    // id,name,age,gpa,major,email,year,status,dateAdded — the layout DataManager reads
+    private static void writeCsv(File file, int count, Random rnd) throws IOException {
+        String[] majors = {"CS", "TH", "BUS", "ENG"};
+        String[] statuses = {"ENROLLED", "GRADUATED", "ON_LEAVE", "DROPPED"};
+        try (BufferedWriter w = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            w.write("id,name,age,gpa,major,email,year,status,dateAdded\n");
+            for (int i = 0; i < count; i++) {
+                String id = BenchmarkDatabase.studentId(i);
+                w.write(String.format(Locale.ROOT, "%s,Student %d,%d,%.2f,%s,%s@student.uni.ac.th,%d,%s,2024-05-01%n",
+                        id, i, 18 + rnd.nextInt(8), rnd.nextInt(401) / 100.0, majors[rnd.nextInt(majors.length)],
+                        id.toLowerCase(), 1 + rnd.nextInt(4), statuses[rnd.nextInt(statuses.length)]));
+            }
+        }
+    }
+
+    private static File ensureDir(File dir) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        return dir;
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Billing every enrolled student for a semester. One run per iteration; the
+ * invoices from the previous iteration are deleted first, so each run bills
+ * the whole cohort again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class InvoiceRunBenchmark {
+
+    private Method generateInvoices;
+
+    @Setup(Level.Trial)
+    public void lookup(DataLayer layer) {
+        generateInvoices = layer.method("generateInvoicesForSemester", String.class, double.class, String.class, String.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearSemester(DataLayer layer) throws Exception {
+        try (Connection conn = BenchmarkDatabase.connect(layer.db)) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement items = conn.prepareStatement(
+                     "DELETE FROM InvoiceItems WHERE invoice_id IN (SELECT invoice_id FROM Invoices WHERE semester_id = ?)");
+                 PreparedStatement invoices = conn.prepareStatement("DELETE FROM Invoices WHERE semester_id = ?")) {
+                items.setString(1, BenchmarkDatabase.UNBILLED_SEMESTER);
+                items.executeUpdate();
+                invoices.setString(1, BenchmarkDatabase.UNBILLED_SEMESTER);
+                invoices.executeUpdate();
+            }
+            conn.commit();
+        }
+    }
+
+    @Benchmark
+    public Object generateInvoicesForSemester(DataLayer layer) {
+        return Legacy.call(generateInvoices, layer.manager,
+                BenchmarkDatabase.UNBILLED_SEMESTER, 30000.0, "2024-11-01", "2024-12-01");
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * The application classes live in the unnamed package, which cannot be imported
+ * from here (and JMH refuses benchmarks in the unnamed package). Everything is
+ * therefore reached through reflection; look methods up once in a @Setup and
+ * keep the Method, the per-call cost is tens of nanoseconds.
+ */
+final class Legacy {
+
+    private Legacy() {
+    }
+
+    static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Application class " + name + " is not on the classpath", e);
+        }
+    }
+
+    static Method method(String type, String name, Class<?>... params) {
+        return method(type(type), name, params);
+    }
+
+    static Method method(Class<?> type, String name, Class<?>... params) {
+        try {
+            Method m = type.getDeclaredMethod(name, params);
+            m.setAccessible(true);
+            return m;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(type.getName() + "." + name + " not found", e);
+        }
+    }
+
+    static Object create(String type, Class<?>[] params, Object... args) {
+        try {
+            Constructor<?> c = type(type).getDeclaredConstructor(params);
+            c.setAccessible(true);
+            return c.newInstance(args);
+        } catch (InvocationTargetException e) {
+            throw unwrap(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create " + type, e);
+        }
+    }
+
+    static Object call(Method m, Object target, Object... args) {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw unwrap(e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RuntimeException unwrap(InvocationTargetException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) return (RuntimeException) cause;
+        if (cause instanceof Error) throw (Error) cause;
+        return new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** The list screens: full loads of the student list, course list and finance summary. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private Method getAllStudentsForDisplay;
+    private Method getAllSubjects;
+    private Method getAllStudentFinanceSummary;
+
+    @Setup(Level.Trial)
+    public void lookup(DataLayer layer) {
+        getAllStudentsForDisplay = layer.method("getAllStudentsForDisplay");
+        getAllSubjects = layer.method("getAllSubjects");
+        getAllStudentFinanceSummary = layer.method("getAllStudentFinanceSummary");
+    }
+
+    @Benchmark
+    public Object allStudentsForDisplay(DataLayer layer) {
+        return Legacy.call(getAllStudentsForDisplay, layer.manager);
+    }
+
+    @Benchmark
+    public Object allSubjects(DataLayer layer) {
+        return Legacy.call(getAllSubjects, layer.manager);
+    }
+
+    @Benchmark
+    public Object allStudentFinanceSummary(DataLayer layer) {
+        return Legacy.call(getAllStudentFinanceSummary, layer.manager);
+    }
+}
@@ -0,0 +1,62 @@
+package benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Single-row writes from the finance and grade screens. Targets are drawn from
+ * a seeded Random so every run touches the same sequence of rows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WritePathBenchmark {
+
+    private Method addPayment;
+    private Method calculateGpa;
+    private Class<?>[] transactionParams;
+    private List<BenchmarkDatabase.PendingInvoice> pending;
+    private Random random;
+    private int students;
+
+    @Setup(Level.Trial)
+    public void lookup(DataLayer layer) throws Exception {
+        Class<?> transaction = Legacy.type("Transaction");
+        addPayment = layer.method("addPayment", transaction);
+        calculateGpa = layer.method("calculateAndUpdatStudentGPA", String.class);
+        transactionParams = new Class<?>[]{int.class, String.class, double.class, String.class, String.class};
+        pending = BenchmarkDatabase.pendingInvoices(layer.db);
+        random = new Random(BenchmarkDatabase.SEED);
+        students = layer.students;
+    }
+
+    // a small amount, so an invoice stays PENDING for the whole run
+    @Benchmark
+    public Object addPayment(DataLayer layer) {
+        BenchmarkDatabase.PendingInvoice invoice = pending.get(random.nextInt(pending.size()));
+        Object tx = Legacy.create("Transaction", transactionParams,
+                invoice.invoiceId, invoice.studentId, 1.0, "Cash", "BENCH");
+        return Legacy.call(addPayment, layer.manager, tx);
+    }
+
+    @Benchmark
+    public Object calculateAndUpdateStudentGpa(DataLayer layer) {
+        return Legacy.call(calculateGpa, layer.manager, BenchmarkDatabase.studentId(random.nextInt(students)));
+    }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 public class AcademicRecordGUI extends JDialog {
 
     private DatabaseManager dbManager;
+    private AsyncDao dao;
     private String studentId;
     private String studentName;
 
@@ -16,6 +17,7 @@ public class AcademicRecordGUI extends JDialog {
     public AcademicRecordGUI(Frame parent, DatabaseManager dbManager, String studentId, String studentName) {
         super(parent, "Academic Record: " + studentName, true);
         this.dbManager = dbManager;
+        this.dao = new AsyncDao(dbManager);
         this.studentId = studentId;
         this.studentName = studentName;
 
@@ -56,21 +58,21 @@ public class AcademicRecordGUI extends JDialog {
     }
 
     private void loadData() {
-        gradesModel.setRowCount(0);
-        
-        ArrayList<EnrollmentRecord> records = dbManager.getEnrollmentsForStudent(this.studentId);
-        for (EnrollmentRecord record : records) {
-            gradesModel.addRow(new Object[]{
-                record.enrollmentId,
-                record.subjectId,
-                record.subjectName,
-                record.credits,
-                record.grade
-            });
-        }
-        
-        double gpax = dbManager.calculateAndUpdatStudentGPA(this.studentId);
-        gpaLabel.setText(String.format("Overall GPAX: %.2f", gpax));
+        dao.load(this, gradesModel, db -> db.getEnrollmentsForStudent(studentId), records -> {
+            gradesModel.setRowCount(0);
+            for (EnrollmentRecord record : records) {
+                gradesModel.addRow(new Object[]{
+                    record.enrollmentId,
+                    record.subjectId,
+                    record.subjectName,
+                    record.credits,
+                    record.grade
+                });
+            }
+        });
+        // writes the recomputed totals back, so it is a submit (never timed out) rather than a load
+        dao.submit(this, db -> db.calculateAndUpdatStudentGPA(studentId),
+                gpax -> gpaLabel.setText(String.format("Overall GPAX: %.2f", gpax)));
     }
 
     private void enrollCourse() {
@@ -80,13 +82,14 @@ public class AcademicRecordGUI extends JDialog {
                 JOptionPane.PLAIN_MESSAGE);
         
         if (subjectId != null && !subjectId.trim().isEmpty()) {
-            boolean success = dbManager.enrollStudentInCourse(this.studentId, subjectId.trim());
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Student enrolled successfully in " + subjectId);
-                loadData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to enroll. Subject ID might be invalid or student is already enrolled.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.enrollStudentInCourse(studentId, subjectId.trim()), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Student enrolled successfully in " + subjectId);
+                    loadData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to enroll. Subject ID might be invalid or student is already enrolled.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -111,13 +114,14 @@ public class AcademicRecordGUI extends JDialog {
                 gradeOptions[0]);
 
         if (newGrade != null) {
-            boolean success = dbManager.updateGrade(enrollmentId, newGrade);
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Grade updated successfully.");
-                loadData();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update grade.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.updateGrade(enrollmentId, newGrade), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Grade updated successfully.");
+                    loadData();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update grade.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+class AnalyticsSnapshot {
+    final GpaSummary gpa;
+    final ArrayList<DataPoint> majorCounts;
+    final ArrayList<DataPoint> statusCounts;
+    final ArrayList<DataPoint> failedCourses;
+    final FinancialReport finance;
+    final long computedAt;
+
+    AnalyticsSnapshot(GpaSummary gpa, ArrayList<DataPoint> majorCounts, ArrayList<DataPoint> statusCounts,
+                      ArrayList<DataPoint> failedCourses, FinancialReport finance, long computedAt) {
+        this.gpa = gpa;
+        this.majorCounts = majorCounts;
+        this.statusCounts = statusCounts;
+        this.failedCourses = failedCourses;
+        this.finance = finance;
+        this.computedAt = computedAt;
+    }
+}
+
+/**
+ * The numbers behind the reports dashboard. All of them are aggregate queries,
+ * run side by side on pooled connections; the combined snapshot is kept for a
+ * TTL and dropped earlier as soon as the DataChangeBus reports a change to
+ * students, courses or finances. Concurrent callers share one computation.
+ */
+class AnalyticsService {
+
+    static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+
+    private final DatabaseManager db;
+    private final long ttlMillis;
+    private final ExecutorService executor;
+    private final DataChangeListener changeListener = this::onChange;
+
+    // guarded by this
+    private CompletableFuture<AnalyticsSnapshot> current;
+    private long expiresAt;
+
+    AnalyticsService(DatabaseManager db) {
+        this(db, DEFAULT_TTL_MILLIS);
+    }
+
+    AnalyticsService(DatabaseManager db, long ttlMillis) {
+        this.db = db;
+        this.ttlMillis = ttlMillis;
+        AtomicInteger n = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(5, r -> {
+            Thread t = new Thread(r, "analytics-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void start() {
+        db.subscribe(changeListener);
+    }
+
+    void dispose() {
+        db.unsubscribe(changeListener);
+        executor.shutdownNow();
+    }
+
+    /** The cached snapshot if it is still valid, otherwise a new (or already running) computation. */
+    synchronized CompletableFuture<AnalyticsSnapshot> snapshot() {
+        if (current != null && (!current.isDone() || System.currentTimeMillis() < expiresAt)) {
+            return current;
+        }
+        CompletableFuture<GpaSummary> gpa = run(db::getGpaSummary);
+        CompletableFuture<ArrayList<DataPoint>> majors = run(db::getStudentCountPerMajor);
+        CompletableFuture<ArrayList<DataPoint>> statuses = run(db::getStudentStatusCount);
+        CompletableFuture<ArrayList<DataPoint>> failed = run(db::getMostFailedCourses);
+        CompletableFuture<FinancialReport> finance = run(db::getFinancialSummaryReport);
+        CompletableFuture<AnalyticsSnapshot> next = CompletableFuture.allOf(gpa, majors, statuses, failed, finance)
+                .thenApply(v -> new AnalyticsSnapshot(gpa.join(), majors.join(), statuses.join(), failed.join(),
+                        finance.join(), System.currentTimeMillis()));
+        current = next;
+        next.whenComplete((snapshot, error) -> {
+            synchronized (this) {
+                if (current != next) return;
+                if (error != null) {
+                    current = null;
+                } else {
+                    expiresAt = System.currentTimeMillis() + ttlMillis;
+                }
+            }
+        });
+        return next;
+    }
+
+    /** Forgets the cached snapshot; a computation already running is not reused either. */
+    synchronized void invalidate() {
+        current = null;
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(query, executor);
+    }
+
+    private void onChange(DataChange change) {
+        switch (change.type) {
+            case STUDENT, SUBJECT, STUDENT_FINANCE -> invalidate();
+            default -> { }
+        }
+    }
+}
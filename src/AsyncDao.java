@@ -0,0 +1,155 @@
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs DatabaseManager calls off the EDT and hands the results back on it.
+ * Calls run on virtual threads when the JVM has them (21+), otherwise on a
+ * cached pool of daemon threads; either way the ConnectionPool bounds how many
+ * actually touch the database at once.
+ *
+ * While a call is out the owning window shows a wait cursor. A load that has
+ * not finished after the timeout is reported to the user and its result is
+ * dropped; the JDBC statement itself keeps running until SQLite returns.
+ * Writes are never timed out: one that is still running may yet commit, and
+ * telling the user to try again would then post it twice.
+ */
+class AsyncDao {
+
+    static final long DEFAULT_TIMEOUT_MILLIS = 15000;
+
+    static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    // EDT only
+    private static final Map<Window, Integer> busyWindows = new WeakHashMap<>();
+    private static boolean timeoutShowing = false;
+
+    private final DatabaseManager db;
+    private final long timeoutMillis;
+    // EDT only; slot -> ticket of the newest load for it
+    private final Map<Object, Integer> latest = new WeakHashMap<>();
+    private int nextTicket = 0;
+
+    AsyncDao(DatabaseManager db) {
+        this(db, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    AsyncDao(DatabaseManager db, long timeoutMillis) {
+        this.db = db;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** The raw call; completes on a background thread, or exceptionally with a TimeoutException. */
+    <T> CompletableFuture<T> call(Function<DatabaseManager, T> work) {
+        return run(work).orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private <T> CompletableFuture<T> run(Function<DatabaseManager, T> work) {
+        return CompletableFuture.supplyAsync(() -> work.apply(db), EXECUTOR);
+    }
+
+    /**
+     * Loads data for a view. onEdt only runs if no newer load for the same slot
+     * (usually the table model being filled) was started in the meantime, so a
+     * slow reload can never overwrite a faster, newer one. A null slot is for
+     * one-off reads. Call on the EDT.
+     */
+    <T> CompletableFuture<T> load(Component owner, Object slot, Function<DatabaseManager, T> query, Consumer<T> onEdt) {
+        int ticket = ++nextTicket;
+        if (slot != null) latest.put(slot, ticket);
+        return deliver(owner, call(query), value -> {
+            if (slot != null && !Integer.valueOf(ticket).equals(latest.get(slot))) return;
+            onEdt.accept(value);
+        });
+    }
+
+    /**
+     * Runs a write and passes its result to onEdt. It waits for SQLite however
+     * long that takes, so reads belong in {@link #load}. Call on the EDT.
+     */
+    <T> CompletableFuture<T> submit(Component owner, Function<DatabaseManager, T> work, Consumer<T> onEdt) {
+        return deliver(owner, run(work), onEdt);
+    }
+
+    private <T> CompletableFuture<T> deliver(Component owner, CompletableFuture<T> future, Consumer<T> onEdt) {
+        Window window = owner == null ? null : SwingUtilities.getWindowAncestor(owner);
+        if (window == null && owner instanceof Window) window = (Window) owner;
+        Window busy = window;
+        setBusy(busy, true);
+        future.whenCompleteAsync((value, error) -> {
+            setBusy(busy, false);
+            if (error != null) {
+                report(owner, error);
+            } else {
+                // the returned future is the caller's; an exception here would otherwise vanish unreported
+                try {
+                    onEdt.accept(value);
+                } catch (RuntimeException e) {
+                    report(owner, e);
+                }
+            }
+        }, EDT);
+        return future;
+    }
+
+    private static void setBusy(Window window, boolean busy) {
+        if (window == null) return;
+        int count = busyWindows.getOrDefault(window, 0) + (busy ? 1 : -1);
+        if (count <= 0) {
+            busyWindows.remove(window);
+            window.setCursor(Cursor.getDefaultCursor());
+        } else {
+            busyWindows.put(window, count);
+            window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+    }
+
+    private static void report(Component owner, Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException) {
+            // several loads usually time out together; one dialog is enough
+            if (timeoutShowing) return;
+            timeoutShowing = true;
+            JOptionPane.showMessageDialog(owner,
+                    "The database did not respond in time (it may be busy or the disk is slow).\nPlease try again in a moment.",
+                    "Database Busy", JOptionPane.WARNING_MESSAGE);
+            timeoutShowing = false;
+            return;
+        }
+        cause.printStackTrace();
+        JOptionPane.showMessageDialog(owner, "Database error: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger n = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "dao-async-" + n.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
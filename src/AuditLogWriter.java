@@ -0,0 +1,188 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+class AuditStats {
+    int queueDepth, capacity;
+    long enqueued, written, dropped, failed, batches;
+
+    @Override
+    public String toString() {
+        return String.format("queued=%d/%d enqueued=%d written=%d batches=%d dropped=%d failed=%d",
+                queueDepth, capacity, enqueued, written, batches, dropped, failed);
+    }
+}
+
+/**
+ * Buffers activity_log rows in a bounded queue and writes them from a single
+ * background thread, one transaction per batch. The timestamp is taken when the
+ * entry is queued, not when it reaches disk.
+ */
+class AuditLogWriter {
+
+    static final int DEFAULT_CAPACITY = 10_000;
+    static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long OFFER_TIMEOUT_MILLIS = 50;
+
+    private static final String SQL_INSERT = "INSERT INTO activity_log(log_timestamp, username, action_description) VALUES (?, ?, ?)";
+
+    private record Entry(long seq, String timestamp, String username, String action) { }
+
+    private final ConnectionPool pool;
+    private final int capacity;
+    private final int batchSize;
+    private final BlockingQueue<Entry> queue;
+    private final Thread writer;
+    private volatile boolean stopping = false;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    // highest seq the writer has finished with (written or failed)
+    private final Object progressLock = new Object();
+    private long processedSeq = 0;
+
+    AuditLogWriter(ConnectionPool pool, int capacity, int batchSize) {
+        this.pool = pool;
+        this.capacity = Math.max(1, capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(this.capacity);
+        this.writer = new Thread(this::drainLoop, "audit-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Never blocks the caller for more than a few milliseconds; when the queue stays full the entry is dropped and counted. */
+    void submit(String timestamp, String username, String action) {
+        if (stopping) {
+            dropped.incrementAndGet();
+            return;
+        }
+        synchronized (sequence) {
+            Entry entry = new Entry(sequence.incrementAndGet(), timestamp, username, action);
+            try {
+                if (queue.offer(entry, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // seq only counts accepted entries, so flush() never waits on one that was dropped
+            sequence.decrementAndGet();
+        }
+        dropped.incrementAndGet();
+    }
+
+    /** Waits until everything queued before this call has been written (or has failed). */
+    boolean flush(long timeoutMillis) {
+        long target = sequence.get();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progressLock) {
+            while (processedSeq < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || !writer.isAlive()) return false;
+                try {
+                    progressLock.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Stops accepting entries and waits for the writer to drain what is already queued. */
+    void shutdown(long timeoutMillis) {
+        stopping = true;
+        writer.interrupt();
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println("Audit log writer stopped with " + queue.size() + " unwritten entries");
+        }
+    }
+
+    AuditStats snapshot() {
+        AuditStats stats = new AuditStats();
+        stats.queueDepth = queue.size();
+        stats.capacity = capacity;
+        stats.enqueued = sequence.get();
+        stats.written = written.get();
+        stats.dropped = dropped.get();
+        stats.failed = failed.get();
+        stats.batches = batches.get();
+        return stats;
+    }
+
+    private void drainLoop() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                Entry first = stopping ? queue.poll() : queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (stopping) return;
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // shutdown() interrupts a sleeping writer; keep draining until the queue is empty
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            writeBatch(batch);
+            markProcessed(batch.get(batch.size() - 1).seq());
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Entry> batch) {
+        // Interrupted state would abort the JDBC calls during the shutdown drain.
+        boolean interrupted = Thread.interrupted();
+        Connection conn = null;
+        try {
+            conn = pool.getConnection();
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+                for (Entry entry : batch) {
+                    pstmt.setString(1, entry.timestamp());
+                    pstmt.setString(2, entry.username());
+                    pstmt.setString(3, entry.action());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            conn.commit();
+            written.addAndGet(batch.size());
+            batches.incrementAndGet();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            failed.addAndGet(batch.size());
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) { e.printStackTrace(); }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private void markProcessed(long seq) {
+        synchronized (progressLock) {
+            if (seq > processedSeq) {
+                processedSeq = seq;
+            }
+            progressLock.notifyAll();
+        }
+    }
+}
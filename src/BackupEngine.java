@@ -0,0 +1,221 @@
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+class BackupResult {
+    File file;
+    String method;
+    long bytes;
+    String integrity;
+    boolean cancelled;
+    long elapsedMillis;
+
+    boolean isHealthy() {
+        return !cancelled && "ok".equalsIgnoreCase(integrity);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("method=%s bytes=%d integrity=%s cancelled=%s elapsed=%dms",
+                method, bytes, integrity, cancelled, elapsedMillis);
+    }
+}
+
+/**
+ * Consistent copy of the live database while other sessions keep writing.
+ * In WAL mode the copy is made with VACUUM INTO, which reads one snapshot and
+ * never blocks writers. In rollback-journal modes a long read would lock out
+ * writers, so the online backup API is used instead, a few pages per step
+ * with a pause in between (sqlite-jdbc's DB.backup, looked up reflectively;
+ * VACUUM INTO is used if the driver does not have it).
+ *
+ * The copy is written next to the target as *.partial, checked with PRAGMA
+ * integrity_check and only then renamed over the target.
+ *
+ * Cancelling stops VACUUM INTO straight away. DB.backup runs to the end in
+ * native code and offers no way to abort it, so a cancelled online backup
+ * finishes copying first and is then discarded.
+ */
+class BackupEngine {
+
+    static final int PAGES_PER_STEP = 256;
+    static final int STEP_PAUSE_MILLIS = 20;
+    static final int BUSY_RETRIES = 500;
+
+    private final DatabaseManager db;
+
+    BackupEngine(DatabaseManager db) {
+        this.db = db;
+    }
+
+    /**
+     * @param progress receives (bytesCopied, bytesExpected) from a background thread; may be null
+     * @param cancelled polled while copying; may be null. An online backup (rollback-journal
+     *                  modes) only sees it once the copy has finished, see the class comment
+     */
+    BackupResult backupTo(File target, BiConsumer<Long, Long> progress, BooleanSupplier cancelled) throws SQLException {
+        long start = System.currentTimeMillis();
+        BackupResult result = new BackupResult();
+        result.file = target;
+        File partial = new File(target.getPath() + ".partial");
+        partial.delete();
+
+        try (Connection conn = db.openDedicatedConnection()) {
+            long pageSize = pragmaLong(conn, "page_size");
+            long expected = (pragmaLong(conn, "page_count") - pragmaLong(conn, "freelist_count")) * pageSize;
+            boolean wal = "wal".equalsIgnoreCase(pragmaString(conn, "journal_mode"));
+
+            if (!wal && onlineBackup(conn, partial, pageSize, progress, cancelled)) {
+                result.method = "backup API";
+            } else {
+                vacuumInto(conn, partial, expected, progress, cancelled);
+                result.method = "VACUUM INTO";
+            }
+        } catch (SQLException e) {
+            partial.delete();
+            if (cancelled != null && cancelled.getAsBoolean()) {
+                result.cancelled = true;
+                result.elapsedMillis = System.currentTimeMillis() - start;
+                return result;
+            }
+            throw e;
+        }
+
+        if (cancelled != null && cancelled.getAsBoolean()) {
+            partial.delete();
+            result.cancelled = true;
+        } else {
+            result.integrity = integrityCheck(partial);
+            if (!"ok".equalsIgnoreCase(result.integrity)) {
+                partial.delete();
+            } else if ((target.delete() || !target.exists()) && partial.renameTo(target)) {
+                result.bytes = target.length();
+            } else {
+                partial.delete();
+                throw new SQLException("Could not move the backup into place at " + target);
+            }
+        }
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    // One read transaction; progress comes from watching the output file grow.
+    private void vacuumInto(Connection conn, File partial, long expected, BiConsumer<Long, Long> progress,
+                            BooleanSupplier cancelled) throws SQLException {
+        ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "backup-progress");
+            t.setDaemon(true);
+            return t;
+        });
+        try (PreparedStatement pstmt = conn.prepareStatement("VACUUM INTO ?")) {
+            pstmt.setString(1, partial.getAbsolutePath());
+            watcher.scheduleWithFixedDelay(() -> {
+                if (progress != null) progress.accept(Math.min(partial.length(), expected), expected);
+                if (cancelled != null && cancelled.getAsBoolean()) {
+                    try {
+                        pstmt.cancel();
+                    } catch (SQLException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }, 100, 100, TimeUnit.MILLISECONDS);
+            pstmt.execute();
+            if (progress != null) progress.accept(expected, expected);
+        } finally {
+            watcher.shutdownNow();
+        }
+    }
+
+    /**
+     * sqlite-jdbc (3.40+): DB.backup(dbName, destFile, ProgressObserver, sleepMillis, nTimeouts, pagesPerStep).
+     * Returns false if the driver does not offer it.
+     */
+    private boolean onlineBackup(Connection conn, File partial, long pageSize, BiConsumer<Long, Long> progress,
+                                 BooleanSupplier cancelled) throws SQLException {
+        Object nativeDb;
+        Method backup;
+        Class<?> observerType;
+        try {
+            Class<?> sqliteConnection = Class.forName("org.sqlite.SQLiteConnection");
+            nativeDb = sqliteConnection.getMethod("getDatabase").invoke(conn.unwrap(sqliteConnection));
+            observerType = Class.forName("org.sqlite.core.DB$ProgressObserver");
+            backup = nativeDb.getClass().getMethod("backup", String.class, String.class, observerType,
+                    int.class, int.class, int.class);
+        } catch (ReflectiveOperationException | SQLException e) {
+            return false;
+        }
+        // progress(remaining, pageCount) is called after every step; the native loop cannot be
+        // stopped from here, so once cancelled the copy just runs out without reporting progress
+        Object observer = Proxy.newProxyInstance(observerType.getClassLoader(), new Class<?>[]{observerType}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "progress" -> {
+                    if (progress == null || (cancelled != null && cancelled.getAsBoolean())) return null;
+                    long total = ((Number) args[1]).longValue() * pageSize;
+                    long remaining = ((Number) args[0]).longValue() * pageSize;
+                    progress.accept(total - remaining, total);
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "BackupProgressObserver";
+                }
+                default -> {
+                    return null;
+                }
+            }
+        });
+        try {
+            int rc = (Integer) backup.invoke(nativeDb, "main", partial.getAbsolutePath(), observer,
+                    STEP_PAUSE_MILLIS, BUSY_RETRIES, PAGES_PER_STEP);
+            if (rc != 0 && rc != 101) { // SQLITE_OK / SQLITE_DONE
+                throw new SQLException("Backup failed with SQLite result code " + rc);
+            }
+        } catch (ReflectiveOperationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            throw new SQLException("Backup failed", cause);
+        }
+        return true;
+    }
+
+    private static String integrityCheck(File file) throws SQLException {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA integrity_check")) {
+            StringBuilder sb = new StringBuilder();
+            while (rs.next()) {
+                if (sb.length() > 0) sb.append("; ");
+                sb.append(rs.getString(1));
+            }
+            return sb.toString();
+        }
+    }
+
+    private static long pragmaLong(Connection conn, String pragma) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String pragmaString(Connection conn, String pragma) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA " + pragma)) {
+            return rs.next() ? rs.getString(1) : "";
+        }
+    }
+}
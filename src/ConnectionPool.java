@@ -0,0 +1,358 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+@FunctionalInterface
+interface ConnectionCustomizer {
+    void customize(Connection conn) throws SQLException;
+}
+
+class PoolStats {
+    int maxSize, open, active, idle;
+    long checkouts, timeouts, discarded;
+    double avgWaitMillis, maxWaitMillis;
+
+    @Override
+    public String toString() {
+        return String.format("active=%d idle=%d open=%d/%d checkouts=%d avgWait=%.2fms maxWait=%.2fms timeouts=%d discarded=%d",
+                active, idle, open, maxSize, checkouts, avgWaitMillis, maxWaitMillis, timeouts, discarded);
+    }
+}
+
+/**
+ * A small fixed-size pool of SQLite connections. Callers keep the usual
+ * try-with-resources pattern: close() on a pooled connection hands it back
+ * instead of closing the underlying file handle.
+ */
+class ConnectionPool {
+
+    private final String url;
+    private final int maxSize;
+    private final long checkoutTimeoutMillis;
+    private final ConnectionCustomizer customizer;
+    private final DataLayerMetrics metrics;
+
+    private static final int MIN_PRUNE_SIZE = 64;
+
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private int openCount = 0;
+    private int activeCount = 0;
+    private boolean closed = false;
+
+    private final AtomicLong checkouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    ConnectionPool(String url, int maxSize, long checkoutTimeoutMillis) {
+        this(url, maxSize, checkoutTimeoutMillis, null);
+    }
+
+    ConnectionPool(String url, int maxSize, long checkoutTimeoutMillis, ConnectionCustomizer customizer) {
+        this(url, maxSize, checkoutTimeoutMillis, customizer, null);
+    }
+
+    /** With metrics set, every checkout and statement is timed and counted; null leaves connections uninstrumented. */
+    ConnectionPool(String url, int maxSize, long checkoutTimeoutMillis, ConnectionCustomizer customizer, DataLayerMetrics metrics) {
+        this.url = url;
+        this.maxSize = Math.max(1, maxSize);
+        this.checkoutTimeoutMillis = checkoutTimeoutMillis;
+        this.customizer = customizer;
+        this.metrics = metrics;
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        String caller = metrics == null ? null : metrics.caller();
+        Connection physical;
+        try {
+            physical = acquire(start);
+        } catch (SQLException e) {
+            if (metrics != null) metrics.recordMethod(caller, System.nanoTime() - start, 0, 1);
+            throw e;
+        }
+        long waited = System.nanoTime() - start;
+        checkouts.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (metrics == null) return wrap(physical, null);
+        metrics.recordConnectionWait(waited);
+        return wrap(physical, new DataLayerMetrics.Checkout(caller, start));
+    }
+
+    Connection openPhysicalConnection() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        if (customizer != null) {
+            try {
+                customizer.customize(conn);
+            } catch (SQLException e) {
+                closeQuietly(conn);
+                throw e;
+            }
+        }
+        return conn;
+    }
+
+    private Connection acquire(long start) throws SQLException {
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(checkoutTimeoutMillis);
+        while (true) {
+            Connection candidate = null;
+            boolean openNew = false;
+            lock.lock();
+            try {
+                while (true) {
+                    if (closed) throw new SQLException("Connection pool is closed");
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pop();
+                        break;
+                    }
+                    if (openCount < maxSize) {
+                        openCount++;
+                        openNew = true;
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.incrementAndGet();
+                        throw new SQLException("Timed out after " + checkoutTimeoutMillis + " ms waiting for a database connection");
+                    }
+                    try {
+                        available.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection", e);
+                    }
+                }
+                activeCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            if (openNew) {
+                try {
+                    return openPhysicalConnection();
+                } catch (SQLException e) {
+                    forget();
+                    throw e;
+                }
+            }
+            if (isHealthy(candidate)) {
+                return candidate;
+            }
+            discard(candidate);
+        }
+    }
+
+    private boolean isHealthy(Connection conn) {
+        try {
+            return !conn.isClosed() && conn.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+        } catch (SQLException e) {
+            discard(physical);
+            return;
+        }
+        lock.lock();
+        try {
+            activeCount--;
+            if (closed) {
+                openCount--;
+                closeQuietly(physical);
+            } else {
+                idle.push(physical);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discard(Connection physical) {
+        discarded.incrementAndGet();
+        closeQuietly(physical);
+        forget();
+    }
+
+    private void forget() {
+        lock.lock();
+        try {
+            activeCount--;
+            openCount--;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            while (!idle.isEmpty()) {
+                closeQuietly(idle.pop());
+                openCount--;
+            }
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    PoolStats snapshot() {
+        PoolStats stats = new PoolStats();
+        lock.lock();
+        try {
+            stats.maxSize = maxSize;
+            stats.open = openCount;
+            stats.active = activeCount;
+            stats.idle = idle.size();
+        } finally {
+            lock.unlock();
+        }
+        stats.checkouts = checkouts.get();
+        stats.timeouts = timeouts.get();
+        stats.discarded = discarded.get();
+        stats.avgWaitMillis = stats.checkouts == 0 ? 0 : totalWaitNanos.get() / 1e6 / stats.checkouts;
+        stats.maxWaitMillis = maxWaitNanos.get() / 1e6;
+        return stats;
+    }
+
+    private static boolean isClosedQuietly(Statement stmt) {
+        try {
+            return stmt.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Connection wrap(Connection physical, DataLayerMetrics.Checkout checkout) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical, checkout));
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final DataLayerMetrics.Checkout checkout;
+        private final List<Statement> statements = new ArrayList<>();
+        private int pruneAt = MIN_PRUNE_SIZE;
+        private boolean returned = false;
+
+        PooledConnectionHandler(Connection physical, DataLayerMetrics.Checkout checkout) {
+            this.physical = physical;
+            this.checkout = checkout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        closeStatements();
+                        release(physical);
+                        if (checkout != null) metrics.finish(checkout);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled[" + physical + "]";
+                }
+                default -> { }
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                Object result = method.invoke(physical, args);
+                if (result instanceof Statement stmt) {
+                    if (checkout != null) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        stmt = metrics.instrument(stmt, method.getReturnType(), sql, checkout);
+                        result = stmt;
+                    }
+                    track(stmt);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                if (checkout != null && e.getCause() instanceof SQLException) {
+                    // a statement that does not even prepare, or a failed commit
+                    checkout.errors++;
+                    if (method.getName().startsWith("prepare")) metrics.recordStatement((String) args[0], 0, 0, true);
+                }
+                throw e.getCause();
+            }
+        }
+
+        // Long imports and billing runs prepare statements by the thousand on one checkout; drop the
+        // closed ones whenever the list doubles, so it stays about as long as the open ones.
+        private void track(Statement stmt) {
+            if (statements.size() >= pruneAt) {
+                statements.removeIf(ConnectionPool::isClosedQuietly);
+                pruneAt = Math.max(MIN_PRUNE_SIZE, statements.size() * 2);
+            }
+            statements.add(stmt);
+        }
+
+        // ResultSets left open by a caller would otherwise pin a read snapshot on a reused connection.
+        private void closeStatements() {
+            for (Statement stmt : statements) {
+                try {
+                    if (!stmt.isClosed()) stmt.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            statements.clear();
+        }
+    }
+}
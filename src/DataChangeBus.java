@@ -0,0 +1,72 @@
+import java.util.concurrent.CopyOnWriteArrayList;
+import javax.swing.SwingUtilities;
+
+enum EntityType { STUDENT, SUBJECT, CLASSROOM, LEAVE_REQUEST, STUDENT_FINANCE, USER }
+
+// BULK: many rows of the entity changed (id is null); listeners should reload
+enum ChangeKind { INSERTED, UPDATED, DELETED, BULK }
+
+class DataChange {
+    final EntityType type;
+    final String id;
+    final ChangeKind kind;
+
+    DataChange(EntityType type, String id, ChangeKind kind) {
+        this.type = type;
+        this.id = id;
+        this.kind = kind;
+    }
+
+    boolean isBulk() {
+        return kind == ChangeKind.BULK || id == null;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + kind + (id != null ? " " + id : "");
+    }
+}
+
+@FunctionalInterface
+interface DataChangeListener {
+    void onChange(DataChange change);
+}
+
+/**
+ * In-process notifications of committed writes. DatabaseManager publishes
+ * after a successful commit; listeners run on the publishing thread unless
+ * wrapped with onEdt().
+ */
+class DataChangeBus {
+
+    private final CopyOnWriteArrayList<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    void subscribe(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    void unsubscribe(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    void publish(EntityType type, String id, ChangeKind kind) {
+        DataChange change = new DataChange(type, id, kind);
+        for (DataChangeListener listener : listeners) {
+            try {
+                listener.onChange(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    static DataChangeListener onEdt(DataChangeListener listener) {
+        return change -> {
+            if (SwingUtilities.isEventDispatchThread()) {
+                listener.onChange(change);
+            } else {
+                SwingUtilities.invokeLater(() -> listener.onChange(change));
+            }
+        };
+    }
+}
@@ -0,0 +1,560 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/** Fixed-bucket latency histogram; lock-free, cheap enough to record every statement. */
+class LatencyHistogram {
+
+    // upper bounds; the last bucket takes everything slower
+    static final long[] BOUNDS_NANOS = {
+        250_000L, 500_000L, 1_000_000L, 2_500_000L, 5_000_000L, 10_000_000L, 25_000_000L, 50_000_000L,
+        100_000_000L, 250_000_000L, 500_000_000L, 1_000_000_000L, 2_500_000_000L, 5_000_000_000L, 10_000_000_000L
+    };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BOUNDS_NANOS.length + 1);
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(long nanos) {
+        int i = 0;
+        while (i < BOUNDS_NANOS.length && nanos > BOUNDS_NANOS[i]) i++;
+        buckets.incrementAndGet(i);
+        sumNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    HistogramSnapshot snapshot() {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) counts[i] = buckets.get(i);
+        return new HistogramSnapshot(counts, sumNanos.sum(), maxNanos.get());
+    }
+}
+
+class HistogramSnapshot {
+    final long[] buckets;
+    final long count;
+    final long sumNanos;
+    final long maxNanos;
+
+    HistogramSnapshot(long[] buckets, long sumNanos, long maxNanos) {
+        this.buckets = buckets;
+        long n = 0;
+        for (long c : buckets) n += c;
+        this.count = n;
+        this.sumNanos = sumNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    double totalMillis() {
+        return sumNanos / 1e6;
+    }
+
+    double meanMillis() {
+        return count == 0 ? 0 : sumNanos / 1e6 / count;
+    }
+
+    double maxMillis() {
+        return maxNanos / 1e6;
+    }
+
+    /** Upper bound of the bucket holding the q-th quantile, never more than the slowest call seen. */
+    double percentileMillis(double q) {
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(q * count);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                long bound = i < LatencyHistogram.BOUNDS_NANOS.length ? LatencyHistogram.BOUNDS_NANOS[i] : maxNanos;
+                return Math.min(bound, maxNanos) / 1e6;
+            }
+        }
+        return maxMillis();
+    }
+}
+
+class OperationStats {
+    final String name;
+    final HistogramSnapshot latency;
+    final long rows;
+    final long errors;
+
+    OperationStats(String name, HistogramSnapshot latency, long rows, long errors) {
+        this.name = name;
+        this.latency = latency;
+        this.rows = rows;
+        this.errors = errors;
+    }
+
+    long calls() {
+        return latency.count;
+    }
+}
+
+class MetricsSnapshot {
+    long since;
+    long takenAt;
+    List<OperationStats> methods;
+    List<OperationStats> statements;
+    HistogramSnapshot connectionWait;
+    PoolStats pool;
+}
+
+/**
+ * Latency, row and error counts for everything that goes through the
+ * connection pool, kept per calling method (the outermost DatabaseManager
+ * method, or Class.method for other callers, found with a StackWalker at
+ * checkout) and per SQL text. A method's latency runs from asking for a
+ * connection to handing it back, so it includes the pool wait; a statement's
+ * runs from execute to the last row read.
+ */
+class DataLayerMetrics {
+
+    static final int MAX_SQL_KEYS = 1000;
+    static final String OTHER_SQL = "(other statements)";
+    static final String BATCH_SQL = "(batch)";
+    private static final int MAX_STACK_DEPTH = 40;
+    private static final Object[] NO_PARAMS = new Object[0];
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final Map<String, Operation> methods = new ConcurrentHashMap<>();
+    private final Map<String, Operation> statements = new ConcurrentHashMap<>();
+    // SQL exactly as the caller wrote it, so normalize() runs once per text rather than per execution
+    private final Map<String, Operation> bySqlText = new ConcurrentHashMap<>();
+    private volatile LatencyHistogram connectionWait = new LatencyHistogram();
+    private volatile long since = System.currentTimeMillis();
+    private volatile SlowQueryLog slowQueries;
+
+    private static class Operation {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        void record(long nanos, long rowCount, int errorCount) {
+            latency.record(nanos);
+            rows.add(rowCount);
+            if (errorCount > 0) errors.add(errorCount);
+        }
+
+        OperationStats snapshot(String name) {
+            return new OperationStats(name, latency.snapshot(), rows.sum(), errors.sum());
+        }
+    }
+
+    /** Who is asking for a connection right now. */
+    String caller() {
+        return WALKER.walk(frames -> {
+            String outermostDao = null;
+            for (StackWalker.StackFrame f : (Iterable<StackWalker.StackFrame>) frames.limit(MAX_STACK_DEPTH)::iterator) {
+                String type = topLevel(f.getClassName());
+                if (type.equals("DataLayerMetrics") || type.equals("ConnectionPool")) continue;
+                if (type.equals("DatabaseManager")) {
+                    // keep going: helpers like connect() or runSqlInTransaction() count toward the public method that called them
+                    outermostDao = type + "." + methodName(f.getMethodName());
+                    continue;
+                }
+                return outermostDao != null ? outermostDao : type + "." + methodName(f.getMethodName());
+            }
+            return outermostDao != null ? outermostDao : "(unknown)";
+        });
+    }
+
+    /** Statements at or over the log's threshold are also handed to it, with their bound parameters. */
+    void setSlowQueryLog(SlowQueryLog log) {
+        this.slowQueries = log;
+    }
+
+    void recordConnectionWait(long nanos) {
+        connectionWait.record(nanos);
+    }
+
+    void recordMethod(String method, long nanos, long rows, int errors) {
+        methods.computeIfAbsent(method, k -> new Operation()).record(nanos, rows, errors);
+    }
+
+    void recordStatement(String sql, long nanos, long rows, boolean failed) {
+        Operation op = sql == null ? null : bySqlText.get(sql);
+        if (op == null) op = statementFor(sql);
+        op.record(nanos, rows, failed ? 1 : 0);
+    }
+
+    private Operation statementFor(String sql) {
+        String key = sql == null ? OTHER_SQL : normalize(sql);
+        // statements built with literals would otherwise grow the map without bound
+        if (!statements.containsKey(key) && statements.size() >= MAX_SQL_KEYS) key = OTHER_SQL;
+        Operation op = statements.computeIfAbsent(key, k -> new Operation());
+        if (sql != null && bySqlText.size() < MAX_SQL_KEYS * 2) bySqlText.put(sql, op);
+        return op;
+    }
+
+    void reset() {
+        methods.clear();
+        statements.clear();
+        bySqlText.clear();
+        connectionWait = new LatencyHistogram();
+        since = System.currentTimeMillis();
+    }
+
+    MetricsSnapshot snapshot() {
+        MetricsSnapshot s = new MetricsSnapshot();
+        s.since = since;
+        s.takenAt = System.currentTimeMillis();
+        s.methods = snapshot(methods);
+        s.statements = snapshot(statements);
+        s.connectionWait = connectionWait.snapshot();
+        return s;
+    }
+
+    private static List<OperationStats> snapshot(Map<String, Operation> ops) {
+        List<OperationStats> out = new ArrayList<>();
+        ops.forEach((name, op) -> out.add(op.snapshot(name)));
+        out.sort(Comparator.comparingLong((OperationStats o) -> o.latency.sumNanos).reversed());
+        return out;
+    }
+
+    /** Prometheus text exposition format, for the monitoring scraper. */
+    static void writeText(MetricsSnapshot s, Writer out) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        histogram(sb, "studentdb_method_duration_seconds", "Time from connection checkout to return, per calling method.", "method", s.methods);
+        counter(sb, "studentdb_method_rows_total", "Rows read or written, per calling method.", "method", s.methods, false);
+        counter(sb, "studentdb_method_errors_total", "SQL errors, per calling method.", "method", s.methods, true);
+        histogram(sb, "studentdb_sql_duration_seconds", "Time from execute to the last row read, per SQL statement.", "sql", s.statements);
+        counter(sb, "studentdb_sql_rows_total", "Rows read or written, per SQL statement.", "sql", s.statements, false);
+        counter(sb, "studentdb_sql_errors_total", "SQL errors, per SQL statement.", "sql", s.statements, true);
+
+        sb.append("# HELP studentdb_connection_wait_seconds Time spent waiting for a pooled connection.\n");
+        sb.append("# TYPE studentdb_connection_wait_seconds histogram\n");
+        buckets(sb, "studentdb_connection_wait_seconds", "", s.connectionWait);
+
+        if (s.pool != null) {
+            sb.append("# HELP studentdb_pool_connections Pooled connections by state.\n");
+            sb.append("# TYPE studentdb_pool_connections gauge\n");
+            sb.append("studentdb_pool_connections{state=\"active\"} ").append(s.pool.active).append('\n');
+            sb.append("studentdb_pool_connections{state=\"idle\"} ").append(s.pool.idle).append('\n');
+            sb.append("studentdb_pool_connections{state=\"max\"} ").append(s.pool.maxSize).append('\n');
+            sb.append("# HELP studentdb_pool_timeouts_total Checkouts that gave up waiting for a connection.\n");
+            sb.append("# TYPE studentdb_pool_timeouts_total counter\n");
+            sb.append("studentdb_pool_timeouts_total ").append(s.pool.timeouts).append('\n');
+        }
+        sb.append("# HELP studentdb_metrics_start_time_seconds When these counters were last reset.\n");
+        sb.append("# TYPE studentdb_metrics_start_time_seconds gauge\n");
+        sb.append("studentdb_metrics_start_time_seconds ").append(s.since / 1000).append('\n');
+        out.write(sb.toString());
+    }
+
+    private static void histogram(StringBuilder sb, String name, String help, String label, List<OperationStats> ops) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" histogram\n");
+        for (OperationStats op : ops) {
+            buckets(sb, name, label + "=\"" + escape(op.name) + "\"", op.latency);
+        }
+    }
+
+    private static void buckets(StringBuilder sb, String name, String labels, HistogramSnapshot h) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < h.buckets.length; i++) {
+            cumulative += h.buckets[i];
+            String le = i < LatencyHistogram.BOUNDS_NANOS.length ? seconds(LatencyHistogram.BOUNDS_NANOS[i]) : "+Inf";
+            sb.append(name).append("_bucket{").append(prefix).append("le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+        }
+        String braces = labels.isEmpty() ? "" : "{" + labels + "}";
+        sb.append(name).append("_sum").append(braces).append(' ').append(seconds(h.sumNanos)).append('\n');
+        sb.append(name).append("_count").append(braces).append(' ').append(h.count).append('\n');
+    }
+
+    private static void counter(StringBuilder sb, String name, String help, String label, List<OperationStats> ops, boolean errors) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        sb.append("# TYPE ").append(name).append(" counter\n");
+        for (OperationStats op : ops) {
+            sb.append(name).append('{').append(label).append("=\"").append(escape(op.name)).append("\"} ")
+              .append(errors ? op.errors : op.rows).append('\n');
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.6f", nanos / 1e9).replaceAll("0+$", "").replaceAll("\\.$", ".0");
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+
+    private static String topLevel(String className) {
+        int dollar = className.indexOf('$');
+        return dollar < 0 ? className : className.substring(0, dollar);
+    }
+
+    // lambda$getAllStudents$3 -> getAllStudents
+    private static String methodName(String name) {
+        if (name.startsWith("lambda$")) {
+            int end = name.indexOf('$', 7);
+            return end < 0 ? name.substring(7) : name.substring(7, end);
+        }
+        return name;
+    }
+
+    // ---- instrumentation used by ConnectionPool ----
+
+    /** One connection checkout: what the calling method did with it. Used by one thread at a time. */
+    static class Checkout {
+        final String method;
+        final long startNanos;
+        long rows;
+        int errors;
+
+        Checkout(String method, long startNanos) {
+            this.method = method;
+            this.startNanos = startNanos;
+        }
+    }
+
+    void finish(Checkout checkout) {
+        recordMethod(checkout.method, System.nanoTime() - checkout.startNanos, checkout.rows, checkout.errors);
+    }
+
+    /** Wraps a statement so its executions and result sets are timed; sql is null for a plain Statement. */
+    Statement instrument(Statement stmt, Class<?> type, String sql, Checkout checkout) {
+        return (Statement) Proxy.newProxyInstance(DataLayerMetrics.class.getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(stmt, sql, checkout));
+    }
+
+    // An execution whose result set is still being read.
+    private class Execution {
+        final String sql;
+        final Checkout checkout;
+        final Object[] params;
+        long nanos;
+        long rows;
+        boolean done;
+
+        Execution(String sql, Checkout checkout, Object[] params, long nanos) {
+            this.sql = sql;
+            this.checkout = checkout;
+            this.params = params;
+            this.nanos = nanos;
+        }
+
+        void finish(boolean failed) {
+            if (done) return;
+            done = true;
+            recordStatement(sql, nanos, rows, failed);
+            checkout.rows += rows;
+            if (failed) checkout.errors++;
+            SlowQueryLog log = slowQueries;
+            if (log != null && log.isSlow(nanos)) log.record(sql, params, nanos, rows, checkout.method, failed);
+        }
+    }
+
+    private class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final Checkout checkout;
+        private Execution open;
+        // bound parameters, kept only while a slow query log is attached
+        private Object[] params = NO_PARAMS;
+        private int paramCount;
+
+        StatementHandler(Statement target, String preparedSql, Checkout checkout) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.checkout = checkout;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.startsWith("set") && preparedSql != null && args != null && args.length >= 2
+                        && args[0] instanceof Integer index && slowQueries != null) {
+                    bind(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    Arrays.fill(params, null);
+                    paramCount = 0;
+                } else if (name.equals("close")) {
+                    finishOpen();
+                } else if (name.equals("getResultSet")) {
+                    ResultSet rs = (ResultSet) call(method, args);
+                    return rs != null && open != null && !open.done ? wrap(rs, open) : rs;
+                }
+                return call(method, args);
+            }
+
+            finishOpen();
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s
+                    : preparedSql != null ? preparedSql : BATCH_SQL;
+            Object[] bound = paramCount == 0 ? null : Arrays.copyOf(params, paramCount);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = call(method, args);
+            } catch (SQLException e) {
+                new Execution(sql, checkout, bound, System.nanoTime() - start).finish(true);
+                throw e;
+            }
+            Execution execution = new Execution(sql, checkout, bound, System.nanoTime() - start);
+            if (result instanceof ResultSet rs) {
+                open = execution;
+                return wrap(rs, execution);
+            }
+            if (result instanceof Boolean hasResultSet) {
+                if (hasResultSet) {
+                    open = execution;
+                    return result;
+                }
+                execution.rows = Math.max(0, target.getUpdateCount());
+            } else if (result instanceof int[] counts) {
+                for (int c : counts) if (c > 0) execution.rows += c;
+            } else if (result instanceof long[] counts) {
+                for (long c : counts) if (c > 0) execution.rows += c;
+            } else if (result instanceof Number count) {
+                execution.rows = Math.max(0, count.longValue());
+            }
+            execution.finish(false);
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            if (index < 1 || index > 999) return;
+            if (index > params.length) params = Arrays.copyOf(params, Math.max(index, params.length * 2));
+            params[index - 1] = value;
+            paramCount = Math.max(paramCount, index);
+        }
+
+        private void finishOpen() {
+            if (open != null) {
+                open.finish(false);
+                open = null;
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private ResultSet wrap(ResultSet rs, Execution execution) {
+        return (ResultSet) Proxy.newProxyInstance(DataLayerMetrics.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    boolean next = name.equals("next");
+                    long start = next ? System.nanoTime() : 0;
+                    try {
+                        Object result = method.invoke(rs, args);
+                        if (next) {
+                            execution.nanos += System.nanoTime() - start;
+                            if ((Boolean) result) {
+                                execution.rows++;
+                            } else {
+                                execution.finish(false);
+                            }
+                        } else if (name.equals("close")) {
+                            execution.finish(false);
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        if (next && e.getCause() instanceof SQLException) execution.finish(true);
+                        throw e.getCause();
+                    }
+                });
+    }
+}
+
+/** Rewrites the metrics file every interval, for a scraper that reads text files. */
+class MetricsFileExporter {
+
+    private final Path file;
+    private final long intervalSeconds;
+    private final Supplier<MetricsSnapshot> source;
+    private ScheduledExecutorService scheduler;
+
+    MetricsFileExporter(Path file, long intervalSeconds, Supplier<MetricsSnapshot> source) {
+        this.file = file;
+        this.intervalSeconds = Math.max(1, intervalSeconds);
+        this.source = source;
+    }
+
+    synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-export");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                write(file, source.get());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /** Stops the schedule and writes one last time, so the file matches the final counters. */
+    synchronized void stop() {
+        if (scheduler == null) return;
+        scheduler.shutdownNow();
+        scheduler = null;
+        try {
+            write(file, source.get());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // written next to the target and moved over it, so a scraper never reads half a file;
+    // the temp name is unique because the scheduled export and "Export Metrics..." may write at once
+    static void write(Path file, MetricsSnapshot snapshot) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, file.getFileName() + ".", ".tmp");
+        try {
+            // createTempFile makes the file owner-only, which would lock out a scraper running as another user
+            if (Files.getFileStore(tmp).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(tmp, Files.exists(file)
+                        ? Files.getPosixFilePermissions(file) : PosixFilePermissions.fromString("rw-r--r--"));
+            }
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                DataLayerMetrics.writeText(snapshot, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
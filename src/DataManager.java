@@ -1,159 +1,421 @@
 import java.io.*;
+import java.sql.SQLException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
-import java.util.function.BiConsumer;
-import java.util.function.BiFunction; 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * Receives records from the streaming readers in DataManager. Rows that cannot
+ * be parsed go to invalid() and reading continues.
+ */
+interface StudentRecordVisitor {
+    /** @return false to stop reading */
+    boolean student(long line, Student s) throws SQLException;
+
+    void invalid(long line, String raw, String reason);
+}
+
 public class DataManager {
 
     private static final String JSON_FILE = "students.json";
     private static final String XML_FILE = "students.xml";
 
     public List<Student> loadFromFile(File f) {
-        List<Student> list = new ArrayList<>();
-        try (Scanner sc = new Scanner(f, StandardCharsets.UTF_8)) {
-            while (sc.hasNextLine()) {
-                String[] d = sc.nextLine().split(",");
-                if (d.length >= 9) {
-                     list.add(new Student(d[0], d[1], "N/A", "N/A", d[5], "N/A", 
-                                          Integer.parseInt(d[2]), Double.parseDouble(d[3]),
-                                          Integer.parseInt(d[6].replace("+", "")),
-                                          StudentStatus.valueOf(d[7]), d[4]));
-                } else if (d.length >= 7) {
-                     list.add(new Student(d[0], d[1], "N/A", "N/A", d[5], "N/A", 
-                                          Integer.parseInt(d[2]), Double.parseDouble(d[3]),
-                                          1, StudentStatus.ENROLLED, d[4]));
-                } else if (d.length >= 5) {
-                     list.add(new Student(d[0], d[1], "N/A", "N/A", "N/A", "N/A", 
-                                          Integer.parseInt(d[2]), Double.parseDouble(d[3]),
-                                          1, StudentStatus.ENROLLED, d[4]));
-                }
-            }
-        } catch (Exception e) { e.printStackTrace(); return null; }
-        return list;
+        return collect(f, "txt");
     }
 
     public List<Student> loadFromCsv(File f) {
+        return collect(f, "csv");
+    }
+
+    public List<Student> loadFromXml(File f) {
+        return collect(f, "xml");
+    }
+
+    private List<Student> collect(File f, String type) {
         List<Student> list = new ArrayList<>();
-        try (Scanner sc = new Scanner(f, StandardCharsets.UTF_8)) {
-            if (sc.hasNextLine()) sc.nextLine();
-            while (sc.hasNextLine()) {
-                String[] d = sc.nextLine().split(",");
-                if (d.length >= 9) {
-                    list.add(new Student(d[0], d[1], "N/A", "N/A", d[5], "N/A", 
-                                         Integer.parseInt(d[2]), Double.parseDouble(d[3]),
-                                         Integer.parseInt(d[6].replace("+", "")),
-                                         StudentStatus.valueOf(d[7]), d[4]));
-                }
-            }
+        try (InputStream in = new FileInputStream(f)) {
+            stream(in, type, new StudentRecordVisitor() {
+                public boolean student(long line, Student s) { list.add(s); return true; }
+                public void invalid(long line, String raw, String reason) { System.err.println("Line " + line + ": " + reason); }
+            });
         } catch (Exception e) { e.printStackTrace(); return null; }
         return list;
     }
 
-    public List<Student> loadFromXml(File f) {
-        List<Student> list = new ArrayList<>();
+    /** Reads txt, csv or xml records one at a time; the whole file is never held in memory. */
+    public void stream(InputStream in, String type, StudentRecordVisitor visitor) throws IOException, SQLException {
+        switch (type.toLowerCase()) {
+            case "txt" -> streamDelimited(in, false, visitor);
+            case "csv" -> streamDelimited(in, true, visitor);
+            case "xml" -> streamXml(in, visitor);
+            default -> throw new IOException("Unsupported file type: " + type);
+        }
+    }
+
+    private void streamDelimited(InputStream in, boolean skipHeader, StudentRecordVisitor visitor) throws IOException, SQLException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        long lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (lineNo == 1 && !line.isEmpty() && line.charAt(0) == '\uFEFF') line = line.substring(1);
+            if ((skipHeader && lineNo == 1) || line.isBlank()) continue;
+            Student s;
+            try {
+                s = parseDelimited(line.split(","), skipHeader);
+            } catch (RuntimeException e) {
+                visitor.invalid(lineNo, line, "Cannot parse: " + e.getMessage());
+                continue;
+            }
+            if (s == null) {
+                visitor.invalid(lineNo, line, "Too few columns");
+                continue;
+            }
+            if (!visitor.student(lineNo, s)) return;
+        }
+    }
+
+    // txt files accept the short 5- and 7-column layouts; csv always needs the full 9 columns
+    private Student parseDelimited(String[] d, boolean csv) {
+        if (d.length >= 9) {
+            return new Student(d[0], d[1], "N/A", "N/A", d[5], "N/A", 
+                               Integer.parseInt(d[2].trim()), Double.parseDouble(d[3].trim()),
+                               Integer.parseInt(d[6].trim().replace("+", "")),
+                               StudentStatus.valueOf(d[7].trim()), d[4]);
+        } else if (csv) {
+            return null;
+        } else if (d.length >= 7) {
+            return new Student(d[0], d[1], "N/A", "N/A", d[5], "N/A", 
+                               Integer.parseInt(d[2].trim()), Double.parseDouble(d[3].trim()),
+                               1, StudentStatus.ENROLLED, d[4]);
+        } else if (d.length >= 5) {
+            return new Student(d[0], d[1], "N/A", "N/A", "N/A", "N/A", 
+                               Integer.parseInt(d[2].trim()), Double.parseDouble(d[3].trim()),
+                               1, StudentStatus.ENROLLED, d[4]);
+        }
+        return null;
+    }
+
+    private void streamXml(InputStream in, StudentRecordVisitor visitor) throws IOException, SQLException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader r = null;
         try {
-            DocumentBuilderFactory dbf = DocumentBuilderFactory.newInstance();
-            DocumentBuilder db = dbf.newDocumentBuilder();
-            Document doc = db.parse(f);
-            doc.getDocumentElement().normalize();
-            NodeList nList = doc.getElementsByTagName("student");
-            
-            BiFunction<Element, String, String> getText = (e, tag) -> 
-                e.getElementsByTagName(tag).getLength() > 0 ? e.getElementsByTagName(tag).item(0).getTextContent() : "N/A";
-
-            for (int i = 0; i < nList.getLength(); i++) {
-                Node node = nList.item(i);
-                if (node.getNodeType() == Node.ELEMENT_NODE) {
-                    Element e = (Element) node;
-                    String id = getText.apply(e, "id");
-                    String name = getText.apply(e, "name");
-                    String address = getText.apply(e, "address");
-                    String phone = getText.apply(e, "phone");
-                    String email = getText.apply(e, "email");
-                    String photoPath = getText.apply(e, "photoPath");
-                    int age = Integer.parseInt(getText.apply(e, "age").equals("N/A") ? "0" : getText.apply(e, "age"));
-                    double gpa = Double.parseDouble(getText.apply(e, "gpa").equals("N/A") ? "0.0" : getText.apply(e, "gpa"));
-                    int year = Integer.parseInt(getText.apply(e, "year").equals("N/A") ? "1" : getText.apply(e, "year").replace("+", ""));
-                    StudentStatus status = StudentStatus.valueOf(getText.apply(e, "status").equals("N/A") ? "ENROLLED" : getText.apply(e, "status"));
-                    String major = getText.apply(e, "major");
-                    list.add(new Student(id, name, address, phone, email, photoPath, age, gpa, year, status, major));
+            // no encoding argument: the reader takes it from the XML prolog (UTF-8 if there is none)
+            r = factory.createXMLStreamReader(in);
+            Map<String, String> fields = new HashMap<>();
+            while (r.hasNext()) {
+                if (r.next() != XMLStreamConstants.START_ELEMENT || !r.getLocalName().equals("student")) continue;
+
+                long line = r.getLocation().getLineNumber();
+                fields.clear();
+                String problem = null;
+                // one pass over the record: every direct child element is a field
+                while (r.hasNext()) {
+                    int event = r.next();
+                    if (event == XMLStreamConstants.END_ELEMENT) break;
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String tag = r.getLocalName();
+                        String text = readFieldText(r);
+                        if (text != null) fields.put(tag, text);
+                    } else if (event == XMLStreamConstants.CHARACTERS && !r.isWhiteSpace() && problem == null) {
+                        problem = "Unexpected text \"" + abbreviate(r.getText().trim()) + "\" between fields";
+                    }
                 }
+                if (problem != null) {
+                    visitor.invalid(line, "<student id=" + fields.getOrDefault("id", "?") + ">", problem);
+                    continue;
+                }
+                Student s;
+                try {
+                    s = toStudent(fields);
+                } catch (RuntimeException ex) {
+                    visitor.invalid(line, "<student id=" + fields.getOrDefault("id", "?") + ">", "Cannot parse: " + ex.getMessage());
+                    continue;
+                }
+                if (!visitor.student(line, s)) return;
             }
-        } catch (Exception e) { e.printStackTrace(); return null; }
-        return list;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid XML: " + e.getMessage(), e);
+        } finally {
+            if (r != null) try { r.close(); } catch (XMLStreamException e) { e.printStackTrace(); }
+        }
+    }
+
+    // Reads a field up to its end tag. A field with elements nested in it is skipped (null), as before.
+    private String readFieldText(XMLStreamReader r) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        boolean nested = false;
+        int depth = 1;
+        while (depth > 0 && r.hasNext()) {
+            int event = r.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                nested = true;
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE || event == XMLStreamConstants.ENTITY_REFERENCE)) {
+                text.append(r.getText());
+            }
+        }
+        return nested ? null : text.toString();
+    }
+
+    private static String abbreviate(String s) {
+        return s.length() <= 40 ? s : s.substring(0, 40) + "...";
+    }
+
+    private Student toStudent(Map<String, String> f) {
+        String age = f.getOrDefault("age", "N/A");
+        String gpa = f.getOrDefault("gpa", "N/A");
+        String year = f.getOrDefault("year", "N/A");
+        String status = f.getOrDefault("status", "N/A");
+        String dateAdded = f.get("dateAdded");
+        return new Student(
+            f.getOrDefault("id", "N/A"), f.getOrDefault("name", "N/A"), f.getOrDefault("address", "N/A"),
+            f.getOrDefault("phone", "N/A"), f.getOrDefault("email", "N/A"), f.getOrDefault("photoPath", "N/A"),
+            Integer.parseInt(age.equals("N/A") ? "0" : age.trim()),
+            Double.parseDouble(gpa.equals("N/A") ? "0.0" : gpa.trim()),
+            Integer.parseInt(year.equals("N/A") ? "1" : year.trim().replace("+", "")),
+            StudentStatus.valueOf(status.equals("N/A") ? "ENROLLED" : status.trim()),
+            f.getOrDefault("major", "N/A"),
+            dateAdded != null && !dateAdded.isBlank() ? dateAdded : new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()),
+            f.getOrDefault("previousSchool", "N/A"), f.getOrDefault("docApplication", "N/A"),
+            f.getOrDefault("docIdCard", "N/A"), f.getOrDefault("docTranscript", "N/A"),
+            null);
     }
 
     public boolean exportToJson(List<Student> students) {
-        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(
-        new FileOutputStream(JSON_FILE), StandardCharsets.UTF_8))) {
-            writer.println("[");
-            for (int i = 0; i < students.size(); i++) {
-                Student s = students.get(i);
-                writer.printf(
-                        "  {\"id\":\"%s\", \"name\":\"%s\", \"address\":\"%s\", \"phone\":\"%s\", \"email\":\"%s\", \"photoPath\":\"%s\", \"age\":%d, \"gpa\":%.2f, \"major\":\"%s\", \"year\":%d, \"status\":\"%s\", \"dateAdded\":\"%s\", \"previousSchool\":\"%s\"}%s%n",
-                        s.id, s.name, s.address, s.phone, s.email, s.photoPath, 
-                        s.age, s.gpa, s.major, s.year, s.status.name(), s.dateAdded,
-                        s.previousSchool,
-                        (i < students.size() - 1 ? "," : "")
-                );
+        try (StudentJsonWriter writer = openJsonExport(new File(JSON_FILE), StudentJsonWriter.ALL_FIELDS, false)) {
+            for (Student s : students) {
+                writer.write(s);
             }
-            writer.println("]");
             return true;
         } catch (IOException e) { e.printStackTrace(); return false; }
     }
 
-    public boolean exportToXml(List<Student> students) {
+    /** fields are written in StudentJsonWriter.ALL_FIELDS order; gzip wraps the file in a GZIP stream. */
+    public StudentJsonWriter openJsonExport(File file, Collection<String> fields, boolean gzip) throws IOException {
+        OutputStream out = new FileOutputStream(file);
         try {
-            DocumentBuilderFactory f = DocumentBuilderFactory.newInstance();
-            DocumentBuilder b = f.newDocumentBuilder();
-            Document doc = b.newDocument();
-            Element root = doc.createElement("students");
-            doc.appendChild(root);
+            if (gzip) out = new GZIPOutputStream(out, 1 << 16);
+            return new StudentJsonWriter(out, fields);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    public boolean exportToXml(List<Student> students) {
+        try (StudentXmlWriter writer = openXmlExport(new File(XML_FILE))) {
             for (Student s : students) {
-                Element e = doc.createElement("student");
-                root.appendChild(e);
-                BiConsumer<String, String> createChild = (tag, value) -> {
-                    Element child = doc.createElement(tag);
-                    child.appendChild(doc.createTextNode(value != null ? value : ""));
-                    e.appendChild(child);
-                };
-                createChild.accept("id", s.id);
-                createChild.accept("name", s.name);
-                createChild.accept("address", s.address); 
-                createChild.accept("phone", s.phone);    
-                createChild.accept("email", s.email);
-                createChild.accept("photoPath", s.photoPath); 
-                createChild.accept("age", String.valueOf(s.age));
-                createChild.accept("gpa", String.valueOf(s.gpa));
-                createChild.accept("major", s.major);
-                createChild.accept("year", String.valueOf(s.year));
-                createChild.accept("status", s.status.name());
-                createChild.accept("dateAdded", s.dateAdded);
-                createChild.accept("previousSchool", s.previousSchool);
-                createChild.accept("docApplication", s.docApplicationPath);
-                createChild.accept("docIdCard", s.docIdCardPath);
-                createChild.accept("docTranscript", s.docTranscriptPath);
+                writer.write(s);
             }
-            Transformer t = TransformerFactory.newInstance().newTransformer();
-            t.setOutputProperty(OutputKeys.INDENT, "yes");
-            t.transform(new DOMSource(doc), new StreamResult(new OutputStreamWriter(
-                new FileOutputStream(XML_FILE), StandardCharsets.UTF_8
-            )));
             return true;
-        } catch (Exception e) { e.printStackTrace(); return false; }
+        } catch (IOException e) { e.printStackTrace(); return false; }
+    }
+
+    public StudentXmlWriter openXmlExport(File file) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            return new StudentXmlWriter(out);
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+}
+
+/**
+ * Writes students as a JSON array one object at a time, so memory use does not
+ * depend on how many rows are exported. Strings are escaped per RFC 8259; null
+ * values are written as JSON null.
+ */
+class StudentJsonWriter implements Closeable {
+
+    static final List<String> ALL_FIELDS = List.of(
+            "id", "name", "address", "phone", "email", "photoPath", "age", "gpa",
+            "major", "year", "status", "dateAdded", "previousSchool");
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer out;
+    private final String[] fields;
+    private final DecimalFormat gpaFormat = new DecimalFormat("0.00", DecimalFormatSymbols.getInstance(Locale.ROOT));
+    private long count = 0;
+
+    StudentJsonWriter(OutputStream os, Collection<String> selected) throws IOException {
+        for (String f : selected) {
+            if (!ALL_FIELDS.contains(f)) throw new IllegalArgumentException("Unknown field: " + f);
+        }
+        this.fields = ALL_FIELDS.stream().filter(selected::contains).toArray(String[]::new);
+        this.out = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), 1 << 16);
+        out.write("[");
+    }
+
+    void write(Student s) throws IOException {
+        out.write(count == 0 ? "\n  {" : ",\n  {");
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) out.write(", ");
+            out.write('"');
+            out.write(fields[i]);
+            out.write("\":");
+            switch (fields[i]) {
+                case "id" -> string(s.id);
+                case "name" -> string(s.name);
+                case "address" -> string(s.address);
+                case "phone" -> string(s.phone);
+                case "email" -> string(s.email);
+                case "photoPath" -> string(s.photoPath);
+                case "age" -> out.write(Integer.toString(s.age));
+                case "gpa" -> out.write(gpaFormat.format(s.gpa));
+                case "major" -> string(s.major);
+                case "year" -> out.write(Integer.toString(s.year));
+                case "status" -> string(s.status != null ? s.status.name() : null);
+                case "dateAdded" -> string(s.dateAdded);
+                case "previousSchool" -> string(s.previousSchool);
+                default -> throw new IllegalStateException(fields[i]);
+            }
+        }
+        out.write('}');
+        count++;
+    }
+
+    long count() {
+        return count;
+    }
+
+    private void string(String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escape = null;
+            switch (c) {
+                case '"' -> escape = "\\\"";
+                case '\\' -> escape = "\\\\";
+                case '\n' -> escape = "\\n";
+                case '\r' -> escape = "\\r";
+                case '\t' -> escape = "\\t";
+                case '\b' -> escape = "\\b";
+                case '\f' -> escape = "\\f";
+                default -> {
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        escape = "\\u" + HEX[c >> 12 & 0xF] + HEX[c >> 8 & 0xF] + HEX[c >> 4 & 0xF] + HEX[c & 0xF];
+                    }
+                }
+            }
+            if (escape != null) {
+                out.write(value, start, i - start);
+                out.write(escape);
+                start = i + 1;
+            }
+        }
+        out.write(value, start, value.length() - start);
+        out.write('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.write(count == 0 ? "]\n" : "\n]\n");
+        out.close();
+    }
+}
+
+/**
+ * Streams the <students><student>... layout with StAX, one record at a time.
+ * Element names and order match what the DOM exporter used to produce.
+ */
+class StudentXmlWriter implements Closeable {
+
+    private final OutputStream os;
+    private final XMLStreamWriter w;
+    private long count = 0;
+
+    StudentXmlWriter(OutputStream os) throws IOException {
+        this.os = new BufferedOutputStream(os, 1 << 16);
+        try {
+            w = XMLOutputFactory.newInstance().createXMLStreamWriter(this.os, StandardCharsets.UTF_8.name());
+            w.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            w.writeCharacters("\n");
+            w.writeStartElement("students");
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    void write(Student s) throws IOException {
+        try {
+            w.writeCharacters("\n    ");
+            w.writeStartElement("student");
+            field("id", s.id);
+            field("name", s.name);
+            field("address", s.address);
+            field("phone", s.phone);
+            field("email", s.email);
+            field("photoPath", s.photoPath);
+            field("age", String.valueOf(s.age));
+            field("gpa", String.valueOf(s.gpa));
+            field("major", s.major);
+            field("year", String.valueOf(s.year));
+            field("status", s.status.name());
+            field("dateAdded", s.dateAdded);
+            field("previousSchool", s.previousSchool);
+            field("docApplication", s.docApplicationPath);
+            field("docIdCard", s.docIdCardPath);
+            field("docTranscript", s.docTranscriptPath);
+            w.writeCharacters("\n    ");
+            w.writeEndElement();
+            count++;
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    private void field(String tag, String value) throws XMLStreamException {
+        w.writeCharacters("\n        ");
+        w.writeStartElement(tag);
+        w.writeCharacters(value != null ? value : "");
+        w.writeEndElement();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (count > 0) w.writeCharacters("\n");
+            w.writeEndElement();
+            w.writeEndDocument();
+            w.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            os.close();
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,26 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import org.mindrot.jbcrypt.BCrypt;
 import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
 
 @FunctionalInterface
 interface TriConsumer<T, U, V> {
     void accept(T t, U u, V v);
 }
 
+@FunctionalInterface
+interface StudentRowHandler {
+    void accept(Student s) throws IOException;
+}
+
 enum Role { ADMIN, TEACHER, STUDENT, GUEST, UNKNOWN,OFFICER }
 enum StudentStatus { ENROLLED, GRADUATED, ON_LEAVE, DROPPED }
 
@@ -196,6 +206,7 @@ class EnrollmentRecord {
 class StudentDisplayRecord {
     String id, name, major, email, phone, dateAdded, homeroomTeacherName;
     String classroomName;
+    String classroomId;
     int year;
     double gpa;
     StudentStatus status;
@@ -217,183 +228,266 @@ public StudentDisplayRecord(String id, String name, String major, int year, Stud
     }
 }
 
+class StudentPage {
+    final ArrayList<StudentDisplayRecord> rows = new ArrayList<>();
+    Object[] lastKey;
+}
+
+/**
+ * Filter and sort for the student list, rendered as SQL against the display
+ * join (s = students, c = classrooms, t = homeroom teacher). Immutable.
+ */
+class StudentQuery {
+    // one per display column; nullable columns are wrapped so row-value comparisons never see NULL
+    static final String[] SORT_EXPRESSIONS = {
+        "s.student_id", "s.name", "IFNULL(s.major, '')", "IFNULL(s.year, 0)", "IFNULL(c.classroom_name, '')",
+        "IFNULL(s.status, '')", "IFNULL(s.gpa, 0)", "IFNULL(s.email, '')", "IFNULL(s.phone, '')",
+        "IFNULL(s.dateAdded, '')", "IFNULL(t.name, '')"
+    };
+    private static final String[] TEXT_COLUMNS = {"s.student_id", "s.name", "s.major", "c.classroom_name", "s.email", "t.name"};
+
+    final String text;
+    final Integer year;
+    final String classroomId;
+    final int sortColumn;
+    final boolean ascending;
+
+    StudentQuery() {
+        this(null, null, null, 0, true);
+    }
+
+    StudentQuery(String text, Integer year, String classroomId, int sortColumn, boolean ascending) {
+        this.text = (text == null || text.isBlank()) ? null : text.trim();
+        this.year = year;
+        this.classroomId = classroomId;
+        this.sortColumn = sortColumn;
+        this.ascending = ascending;
+    }
+
+    StudentQuery withFilter(String text, Integer year, String classroomId) {
+        return new StudentQuery(text, year, classroomId, sortColumn, ascending);
+    }
+
+    StudentQuery withSort(int column, boolean asc) {
+        return new StudentQuery(text, year, classroomId, column, asc);
+    }
+
+    boolean sameFilter(StudentQuery o) {
+        return Objects.equals(text, o.text) && Objects.equals(year, o.year) && Objects.equals(classroomId, o.classroomId);
+    }
+
+    String sortExpression() {
+        return SORT_EXPRESSIONS[sortColumn];
+    }
+
+    // SQLite does not drop unused LEFT JOINs from a COUNT or an OFFSET scan, so callers skip them when possible
+    boolean needsJoins() {
+        return text != null || sortColumn == 4 || sortColumn == 10;
+    }
+
+    String orderBy() {
+        String dir = ascending ? " ASC" : " DESC";
+        return sortColumn == 0 ? " ORDER BY s.student_id" + dir : " ORDER BY " + sortExpression() + dir + ", s.student_id" + dir;
+    }
+
+    String where(List<Object> params, Object[] afterKey) {
+        return where(params, afterKey, null);
+    }
+
+    String where(List<Object> params, Object[] afterKey, String studentId) {
+        List<String> clauses = new ArrayList<>();
+        if (studentId != null) {
+            clauses.add("s.student_id = ?");
+            params.add(studentId);
+        }
+        if (text != null) {
+            String pattern = "%" + text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            List<String> ors = new ArrayList<>();
+            for (String col : TEXT_COLUMNS) {
+                ors.add(col + " LIKE ? ESCAPE '\\'");
+                params.add(pattern);
+            }
+            clauses.add("(" + String.join(" OR ", ors) + ")");
+        }
+        if (year != null) {
+            clauses.add("s.year = ?");
+            params.add(year);
+        }
+        if (classroomId != null) {
+            clauses.add("s.classroom_id = ?");
+            params.add(classroomId);
+        }
+        if (afterKey != null) {
+            String cmp = ascending ? " > " : " < ";
+            if (sortColumn == 0) {
+                clauses.add("s.student_id" + cmp + "?");
+                params.add(afterKey[1]);
+            } else {
+                clauses.add("(" + sortExpression() + ", s.student_id)" + cmp + "(?, ?)");
+                params.add(afterKey[0]);
+                params.add(afterKey[1]);
+            }
+        }
+        return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+    }
+}
+
 public class DatabaseManager {
 
-    private static final String DATABASE_FILE_NAME = "university_v7.db"; 
-    private static final String DATABASE_URL = "jdbc:sqlite:" + DATABASE_FILE_NAME;
+    private static final StorageProfile PROFILE = StorageProfile.load();
+    private static final String DATABASE_FILE_NAME = PROFILE.databaseFile;
+    private static final String DATABASE_URL = PROFILE.jdbcUrl();
+
+    static final String BACKFILL_INVOICE_PAID_SQL =
+        "UPDATE Invoices SET amount_paid = COALESCE((SELECT SUM(t.amount_paid) FROM Transactions t WHERE t.invoice_id = Invoices.invoice_id), 0)";
+    static final String BACKFILL_INVOICE_BALANCE_SQL =
+        "UPDATE Invoices SET balance = total_amount - amount_paid";
+    // settled invoices are PAID, like postPayment; a PAID one with money owing again goes back to PENDING
+    static final String REPAIR_INVOICE_STATUS_SQL =
+        "UPDATE Invoices SET status = CASE WHEN balance <= 0 THEN 'PAID' WHEN status = 'PAID' THEN 'PENDING' ELSE status END " +
+        "WHERE (balance <= 0 AND status <> 'PAID') OR (balance > 0 AND status = 'PAID')";
+
+    // SQL twins of gradeToPoint / countsTowardGpa over an enrollments alias e; keep the three in step
+    static final String GRADE_POINT_SQL =
+        "CASE UPPER(e.grade) WHEN 'A' THEN 4.0 WHEN 'B+' THEN 3.5 WHEN 'B' THEN 3.0 WHEN 'C+' THEN 2.5 " +
+        "WHEN 'C' THEN 2.0 WHEN 'D+' THEN 1.5 WHEN 'D' THEN 1.0 ELSE 0.0 END";
+    static final String COUNTS_TOWARD_GPA_SQL = "e.grade IS NOT NULL AND e.grade NOT IN ('W', 'N/A')";
+    private static final String GRADED_ENROLLMENTS_SQL =
+        "FROM enrollments e JOIN subjects sub ON sub.subject_id = e.subject_id " +
+        "WHERE e.student_id = students.student_id AND " + COUNTS_TOWARD_GPA_SQL;
+    static final String RECOMPUTE_GPA_TOTALS_SQL =
+        "UPDATE students SET " +
+        "total_points = COALESCE((SELECT SUM(" + GRADE_POINT_SQL + " * sub.credits) " + GRADED_ENROLLMENTS_SQL + "), 0), " +
+        "total_credits = COALESCE((SELECT SUM(sub.credits) " + GRADED_ENROLLMENTS_SQL + "), 0)";
+    static final String RECOMPUTE_GPA_SQL =
+        "UPDATE students SET gpa = CASE WHEN total_credits > 0 THEN total_points / total_credits ELSE 0 END";
+
+    private static final DataLayerMetrics METRICS = new DataLayerMetrics();
+    private static final ConnectionPool POOL = new ConnectionPool(DATABASE_URL, PROFILE.poolSize, PROFILE.poolCheckoutTimeoutMillis,
+            PROFILE::apply, PROFILE.metricsEnabled ? METRICS : null);
+    private static final MetricsFileExporter METRICS_EXPORT = PROFILE.metricsEnabled && !PROFILE.metricsExportFile.isEmpty()
+            ? new MetricsFileExporter(Paths.get(PROFILE.metricsExportFile), PROFILE.metricsExportIntervalSeconds, DatabaseManager::metricsSnapshot)
+            : null;
+    private static final SlowQueryLog SLOW_QUERIES = PROFILE.slowQueryLogEnabled()
+            ? new SlowQueryLog(PROFILE.slowQueryMillis, Paths.get(PROFILE.slowQueryFile), PROFILE.slowQueryFileMaxBytes,
+                    PROFILE.slowQueryFiles, POOL::openPhysicalConnection)
+            : null;
+
+    private static final AuditLogWriter AUDIT = new AuditLogWriter(POOL, AuditLogWriter.DEFAULT_CAPACITY, AuditLogWriter.DEFAULT_BATCH_SIZE);
+    private static final StudentCountTracker STUDENT_COUNT = new StudentCountTracker(POOL);
+    private static final DataChangeBus CHANGES = new DataChangeBus();
+
+    static {
+        if (METRICS_EXPORT != null) METRICS_EXPORT.start();
+        if (SLOW_QUERIES != null) {
+            METRICS.setSlowQueryLog(SLOW_QUERIES);
+            SLOW_QUERIES.start();
+        }
+        // One hook so queued audit rows are written before the pool goes away.
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            STUDENT_COUNT.stop();
+            AUDIT.shutdown(5000);
+            if (METRICS_EXPORT != null) METRICS_EXPORT.stop();
+            if (SLOW_QUERIES != null) SLOW_QUERIES.stop(2000);
+            POOL.close();
+        }, "db-shutdown"));
+    }
     
-    private Connection connect() {
+    Connection connect() {
         Connection conn = null;
         try {
-            Class.forName("org.sqlite.JDBC");
-            conn = DriverManager.getConnection(DATABASE_URL);
+            conn = POOL.getConnection();
         } catch (Exception e) { e.printStackTrace(); }
         return conn;
     }
 
-    public void initDatabase() {
-    String createUserTable = "CREATE TABLE IF NOT EXISTS users (username TEXT PRIMARY KEY, password_hash TEXT NOT NULL, role TEXT NOT NULL);";
-    
-    String createStudentsTable = """
-        CREATE TABLE IF NOT EXISTS students (
-            student_id TEXT PRIMARY KEY, name TEXT NOT NULL, address TEXT, phone TEXT, email TEXT, 
-            photoPath TEXT, age INTEGER, gpa REAL, year INTEGER, status TEXT, major TEXT, dateAdded TEXT,
-            previous_school TEXT, doc_application_path TEXT, doc_id_card_path TEXT, doc_transcript_path TEXT,
-            classroom_id TEXT, 
-            FOREIGN KEY (student_id) REFERENCES users(username),
-            FOREIGN KEY (classroom_id) REFERENCES classrooms(classroom_id) ON DELETE SET NULL
-        );""";
-
-    String createClassroomsTable = """
-        CREATE TABLE IF NOT EXISTS classrooms (
-            classroom_id TEXT PRIMARY KEY,
-            classroom_name TEXT NOT NULL,
-            teacher_id TEXT,
-            major_id TEXT,
-            classroom_type TEXT,
-            FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id) ON DELETE SET NULL,
-            FOREIGN KEY (major_id) REFERENCES majors(major_id) ON DELETE SET NULL
-        );""";
-    
-    String createTeachersTable = "CREATE TABLE IF NOT EXISTS teachers (teacher_id TEXT PRIMARY KEY, name TEXT NOT NULL, email TEXT, office TEXT, FOREIGN KEY (teacher_id) REFERENCES users(username));";
-    
-    String createMajorsTable = "CREATE TABLE IF NOT EXISTS majors (major_id TEXT PRIMARY KEY, major_name TEXT NOT NULL);";
-    String createSemestersTable = "CREATE TABLE IF NOT EXISTS semesters (semester_id TEXT PRIMARY KEY, semester_name TEXT NOT NULL);";
-
-    String createSubjectsTable = """
-        CREATE TABLE IF NOT EXISTS subjects (
-            subject_id TEXT PRIMARY KEY, 
-            subject_name TEXT NOT NULL, 
-            credits INTEGER,
-            major_id TEXT,
-            semester_id TEXT,
-            FOREIGN KEY (major_id) REFERENCES majors(major_id),
-            FOREIGN KEY (semester_id) REFERENCES semesters(semester_id)
-        );""";
-            
-    String createPrerequisitesTable = """
-        CREATE TABLE IF NOT EXISTS prerequisites (
-            subject_id TEXT NOT NULL,
-            prerequisite_subject_id TEXT NOT NULL,
-            PRIMARY KEY (subject_id, prerequisite_subject_id),
-            FOREIGN KEY (subject_id) REFERENCES subjects(subject_id),
-            FOREIGN KEY (prerequisite_subject_id) REFERENCES subjects(subject_id)
-        );""";
-
-    String createEnrollmentsTable = "CREATE TABLE IF NOT EXISTS enrollments (enrollment_id INTEGER PRIMARY KEY AUTOINCREMENT, student_id TEXT NOT NULL, subject_id TEXT NOT NULL, grade TEXT, FOREIGN KEY (student_id) REFERENCES students(student_id), FOREIGN KEY (subject_id) REFERENCES subjects(subject_id));";
-    
-    String createAssignmentsTable = """
-        CREATE TABLE IF NOT EXISTS teaching_assignments (
-            assignment_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            teacher_id TEXT NOT NULL,
-            subject_id TEXT NOT NULL,
-            room TEXT,
-            schedule_day TEXT,
-            schedule_time TEXT,
-            FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id),
-            FOREIGN KEY (subject_id) REFERENCES subjects(subject_id)
-        );""";
-
-    String createAssignmentGradesTable = """
-        CREATE TABLE IF NOT EXISTS assignment_grades (
-            grade_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            enrollment_id INTEGER NOT NULL,
-            assignment_name TEXT NOT NULL,
-            score REAL DEFAULT 0,
-            max_score REAL DEFAULT 100,
-            date_recorded TEXT,
-            FOREIGN KEY (enrollment_id) REFERENCES enrollments(enrollment_id) ON DELETE CASCADE
-        );""";
-            
-    String createLeaveRequestsTable = """
-        CREATE TABLE IF NOT EXISTS leave_requests (
-            leave_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            teacher_id TEXT NOT NULL,
-            start_date TEXT NOT NULL,
-            end_date TEXT NOT NULL,
-            reason TEXT,
-            status TEXT NOT NULL DEFAULT 'PENDING', 
-            FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id)
-        );""";
-
-    String createInvoicesTable = """
-        CREATE TABLE IF NOT EXISTS Invoices (
-            invoice_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            student_id TEXT NOT NULL,
-            semester_id TEXT,
-            issue_date TEXT NOT NULL,
-            due_date TEXT NOT NULL,
-            total_amount REAL NOT NULL,
-            status TEXT NOT NULL, 
-            FOREIGN KEY (student_id) REFERENCES students (student_id),
-            FOREIGN KEY (semester_id) REFERENCES semesters (semester_id)
-        );""";
-            
-    String createInvoiceItemsTable = """
-        CREATE TABLE IF NOT EXISTS InvoiceItems (
-            item_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            invoice_id INTEGER NOT NULL,
-            description TEXT NOT NULL,
-            amount REAL NOT NULL,
-            FOREIGN KEY (invoice_id) REFERENCES Invoices (invoice_id)
-        );""";
-            
-    String createTransactionsTable = """
-        CREATE TABLE IF NOT EXISTS Transactions (
-            transaction_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            invoice_id INTEGER NOT NULL,
-            student_id TEXT NOT NULL,
-            payment_date TEXT NOT NULL,
-            amount_paid REAL NOT NULL,
-            payment_method TEXT NOT NULL,
-            reference_code TEXT,
-            FOREIGN KEY (invoice_id) REFERENCES Invoices (invoice_id),
-            FOREIGN KEY (student_id) REFERENCES students (student_id)
-        );""";
-            
-    String createFinancialAidTable = """
-        CREATE TABLE IF NOT EXISTS FinancialAid (
-            aid_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            student_id TEXT NOT NULL,
-            semester_id TEXT,
-            aid_type TEXT NOT NULL, 
-            description TEXT,
-            amount REAL NOT NULL,
-            apply_date TEXT NOT NULL,
-            FOREIGN KEY (student_id) REFERENCES students (student_id),
-            FOREIGN KEY (semester_id) REFERENCES semesters (semester_id)
-        );""";
-            
-    String createActivityLogTable = """
-        CREATE TABLE IF NOT EXISTS activity_log (
-            log_id INTEGER PRIMARY KEY AUTOINCREMENT,
-            log_timestamp TEXT NOT NULL,
-            username TEXT NOT NULL,
-            action_description TEXT NOT NULL
-        );""";
+    // A connection outside the pool, with the storage profile applied, for long jobs like backups.
+    Connection openDedicatedConnection() throws SQLException {
+        return POOL.openPhysicalConnection();
+    }
 
+    public PoolStats getPoolStats() {
+        return POOL.snapshot();
+    }
+
+    public AuditStats getAuditStats() {
+        return AUDIT.snapshot();
+    }
+
+    /** Data layer latency/row/error counts since startup or the last reset; empty when metrics.enabled is off. */
+    public MetricsSnapshot getMetricsSnapshot() {
+        return metricsSnapshot();
+    }
+
+    private static MetricsSnapshot metricsSnapshot() {
+        MetricsSnapshot snapshot = METRICS.snapshot();
+        snapshot.pool = POOL.snapshot();
+        return snapshot;
+    }
+
+    public void resetMetrics() {
+        METRICS.reset();
+    }
+
+    /** Statements over metrics.slow_query_ms, worst first; empty when the slow query log is off. */
+    public List<SlowQueryOffender> getSlowQueryOffenders() {
+        return SLOW_QUERIES == null ? new ArrayList<>() : SLOW_QUERIES.worstOffenders();
+    }
+
+    public void clearSlowQueryOffenders() {
+        if (SLOW_QUERIES != null) SLOW_QUERIES.clearOffenders();
+    }
+
+    public String getSlowQueryLogStatus() {
+        return SLOW_QUERIES == null ? "Slow query log is off (metrics.slow_query_ms)" : "Slow query log: " + SLOW_QUERIES.describe();
+    }
+
+    public boolean exportMetrics(File file) {
+        try {
+            MetricsFileExporter.write(file.toPath(), metricsSnapshot());
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /** Cached students row count (-1 until first loaded); never touches the database on the calling thread. */
+    public int getCachedStudentCount() {
+        return STUDENT_COUNT.get();
+    }
+
+    public void addStudentCountListener(IntConsumer listener) {
+        STUDENT_COUNT.addListener(listener);
+    }
+
+    public void removeStudentCountListener(IntConsumer listener) {
+        STUDENT_COUNT.removeListener(listener);
+    }
+
+    public void subscribe(DataChangeListener listener) {
+        CHANGES.subscribe(listener);
+    }
+
+    public void unsubscribe(DataChangeListener listener) {
+        CHANGES.unsubscribe(listener);
+    }
+
+    // called only after the change is committed
+    void publishChange(EntityType type, String id, ChangeKind kind) {
+        CHANGES.publish(type, id, kind);
+    }
+
+    public void initDatabase() {
     boolean isNewDatabase = false;
 
+    System.out.println("Storage profile: " + PROFILE.describe());
+
     try (Connection conn = connect(); Statement stmt = conn.createStatement()) {
-        stmt.execute(createUserTable);
-        stmt.execute(createMajorsTable); 
-        stmt.execute(createTeachersTable); 
-        stmt.execute(createClassroomsTable); 
-        stmt.execute(createStudentsTable); 
-        stmt.execute(createSemestersTable); 
-        stmt.execute(createSubjectsTable);
-        stmt.execute(createPrerequisitesTable); 
-        stmt.execute(createEnrollmentsTable);
-        stmt.execute(createAssignmentGradesTable);
-        stmt.execute(createAssignmentsTable);
-        stmt.execute(createLeaveRequestsTable);
-
-        stmt.execute(createInvoicesTable);
-        stmt.execute(createInvoiceItemsTable);
-        stmt.execute(createTransactionsTable);
-        stmt.execute(createFinancialAidTable);
-        
-        stmt.execute(createActivityLogTable);
+        try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+            if (rs.next()) System.out.println("Active journal mode: " + rs.getString(1));
+        }
+        SchemaMigrator.migrate(conn);
 
         try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM users WHERE username = 'admin'")) {
             if (!rs.next()) {
@@ -411,8 +505,9 @@ public class DatabaseManager {
     } else {
         System.out.println("Existing database found. Skipping dummy data.");
     }
+    STUDENT_COUNT.start();
     
-    System.out.println("✅ Database V6 (with Classroom Types) initialized successfully!"); 
+    System.out.println("✅ Database initialized successfully (schema version " + SchemaMigrator.latestVersion() + ")");
 }
     
     public CourseData getSubjectAndAssignmentData(String subjectId) {
@@ -485,6 +580,9 @@ public class DatabaseManager {
             }
             
             conn.commit();
+            STUDENT_COUNT.adjust(1);
+            publishChange(EntityType.STUDENT, s.id, ChangeKind.INSERTED);
+            publishChange(EntityType.USER, s.id, ChangeKind.INSERTED);
             return true;
 
         } catch (SQLException e) {
@@ -504,6 +602,12 @@ public class DatabaseManager {
         try {
             conn = connect();
             conn.setAutoCommit(false);
+            Integer oldCredits = null;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT credits FROM subjects WHERE subject_id = ?")) {
+                pstmt.setString(1, data.id);
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) oldCredits = rs.getInt("credits");
+            }
             try (PreparedStatement pstmtSub = conn.prepareStatement(sqlSubject)) {
                 pstmtSub.setString(1, data.name);
                 pstmtSub.setInt(2, data.credits);
@@ -532,8 +636,17 @@ public class DatabaseManager {
                     }
                 }
             }
+            // the GPA totals of everyone with a grade in this course depend on its credits
+            boolean creditsChanged = oldCredits != null && oldCredits != data.credits;
+            if (creditsChanged) {
+                String enrolled = " WHERE student_id IN (SELECT student_id FROM enrollments WHERE subject_id = ?)";
+                runSqlInTransaction(conn, RECOMPUTE_GPA_TOTALS_SQL + enrolled, new Object[]{data.id});
+                runSqlInTransaction(conn, RECOMPUTE_GPA_SQL + enrolled + " AND total_credits > 0", new Object[]{data.id});
+            }
             
             conn.commit();
+            publishChange(EntityType.SUBJECT, data.id, ChangeKind.UPDATED);
+            if (creditsChanged) publishChange(EntityType.STUDENT, null, ChangeKind.BULK);
             return true;
 
         } catch (SQLException e) {
@@ -570,6 +683,7 @@ public class DatabaseManager {
             }
             
             conn.commit();
+            publishChange(EntityType.SUBJECT, mainSubjectId, ChangeKind.UPDATED);
             return true;
 
         } catch (SQLException e) {
@@ -816,6 +930,7 @@ public class DatabaseManager {
             pstmt.setString(4, type.name());
             pstmt.setString(5, id);
             pstmt.executeUpdate();
+            publishChange(EntityType.CLASSROOM, id, ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -829,6 +944,7 @@ public class DatabaseManager {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, id);
             pstmt.executeUpdate();
+            publishChange(EntityType.CLASSROOM, id, ChangeKind.DELETED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -846,6 +962,7 @@ public class DatabaseManager {
             pstmt.setString(4, majorId);
             pstmt.setString(5, type.name());
             pstmt.executeUpdate();
+            publishChange(EntityType.CLASSROOM, id, ChangeKind.INSERTED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -869,6 +986,7 @@ public class DatabaseManager {
             pstmt.setString(2, hash);
             pstmt.setString(3, role.name());
             pstmt.executeUpdate();
+            publishChange(EntityType.USER, username, ChangeKind.INSERTED);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -953,6 +1071,7 @@ public class DatabaseManager {
             }
             
             conn.commit();
+            publishChange(EntityType.SUBJECT, data.id, ChangeKind.INSERTED);
             return true;
 
         } catch (SQLException e) {
@@ -978,6 +1097,11 @@ public class DatabaseManager {
     }
 
     public ArrayList<Subject> getAllSubjects() {
+        return getSubjects(null);
+    }
+
+    /** All subjects, or only the rows for one subject (one per teaching assignment). */
+    public ArrayList<Subject> getSubjects(String subjectId) {
         ArrayList<Subject> subjects = new ArrayList<>();
         String sql = """
             SELECT 
@@ -993,11 +1117,13 @@ public class DatabaseManager {
             LEFT JOIN semesters sem ON s.semester_id = sem.semester_id
             LEFT JOIN teaching_assignments ta ON s.subject_id = ta.subject_id
             LEFT JOIN teachers t ON ta.teacher_id = t.teacher_id
+            WHERE ?1 IS NULL OR s.subject_id = ?1
             """;
         
         try (Connection conn = connect(); 
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, subjectId);
+            ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 String schedule = rs.getString("schedule_day") + " (" + rs.getString("schedule_time") + ") @ " + rs.getString("room");
                 if (rs.getString("schedule_day") == null) {
@@ -1026,79 +1152,211 @@ public class DatabaseManager {
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                students.add(new Student(
-                    rs.getString("student_id"), rs.getString("name"), rs.getString("address"),
-                    rs.getString("phone"), rs.getString("email"), rs.getString("photoPath"),
-                    rs.getInt("age"), rs.getDouble("gpa"), rs.getInt("year"),
-                    StudentStatus.valueOf(rs.getString("status")), rs.getString("major"), rs.getString("dateAdded"),
-                    rs.getString("previous_school"), rs.getString("doc_application_path"),
-                    rs.getString("doc_id_card_path"), rs.getString("doc_transcript_path"),
-                    rs.getString("classroom_id")
-                ));
+                students.add(mapStudent(rs));
             }
         } catch (SQLException e) { e.printStackTrace(); }
         
         return students;
     }
 
+    /** Hands students to the handler one row at a time, straight off the cursor. Returns the number of rows. */
+    public long streamAllStudents(StudentRowHandler handler) throws SQLException, IOException {
+        String sql = "SELECT * FROM students ORDER BY student_id";
+        long rows = 0;
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.setFetchSize(500);
+            try (ResultSet rs = stmt.executeQuery(sql)) {
+                while (rs.next()) {
+                    handler.accept(mapStudent(rs));
+                    rows++;
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static Student mapStudent(ResultSet rs) throws SQLException {
+        return new Student(
+            rs.getString("student_id"), rs.getString("name"), rs.getString("address"),
+            rs.getString("phone"), rs.getString("email"), rs.getString("photoPath"),
+            rs.getInt("age"), rs.getDouble("gpa"), rs.getInt("year"),
+            StudentStatus.valueOf(rs.getString("status")), rs.getString("major"), rs.getString("dateAdded"),
+            rs.getString("previous_school"), rs.getString("doc_application_path"),
+            rs.getString("doc_id_card_path"), rs.getString("doc_transcript_path"),
+            rs.getString("classroom_id")
+        );
+    }
+
     public ArrayList<StudentDisplayRecord> getAllStudentsForDisplay() {
         ArrayList<StudentDisplayRecord> students = new ArrayList<>();
-        String sql = """
-            SELECT 
-                s.student_id, s.name, s.major, s.year, s.status, s.gpa, s.email, s.phone, s.dateAdded,
-                t.name AS teacher_name,
-                c.classroom_name
-            FROM students s
-            LEFT JOIN classrooms c ON s.classroom_id = c.classroom_id
-            LEFT JOIN teachers t ON c.teacher_id = t.teacher_id
-            ORDER BY s.student_id
-            """;
+        String sql = "SELECT " + DISPLAY_COLUMNS + DISPLAY_FROM + " ORDER BY s.student_id";
         
         try (Connection conn = connect();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                
-                String statusStr = rs.getString("status");
-                StudentStatus status = (statusStr != null) ? StudentStatus.valueOf(statusStr) : StudentStatus.ENROLLED;
-
-                students.add(new StudentDisplayRecord(
-                    rs.getString("student_id"),
-                    rs.getString("name"),
-                    rs.getString("major"),
-                    rs.getInt("year"),
-                    status,
-                    rs.getDouble("gpa"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getString("dateAdded"),
-                    rs.getString("teacher_name"),
-                    rs.getString("classroom_name")
-                ));
+                students.add(mapDisplayRecord(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
         return students;
     }
+
+    private static final String DISPLAY_COLUMNS =
+        "s.student_id, s.name, s.major, s.year, s.status, s.gpa, s.email, s.phone, s.dateAdded, t.name AS teacher_name, c.classroom_name, s.classroom_id";
+    private static final String DISPLAY_FROM =
+        " FROM students s LEFT JOIN classrooms c ON s.classroom_id = c.classroom_id LEFT JOIN teachers t ON c.teacher_id = t.teacher_id";
+
+    private static StudentDisplayRecord mapDisplayRecord(ResultSet rs) throws SQLException {
+        String statusStr = rs.getString("status");
+        StudentStatus status = (statusStr != null) ? StudentStatus.valueOf(statusStr) : StudentStatus.ENROLLED;
+        StudentDisplayRecord record = new StudentDisplayRecord(
+            rs.getString("student_id"),
+            rs.getString("name"),
+            rs.getString("major"),
+            rs.getInt("year"),
+            status,
+            rs.getDouble("gpa"),
+            rs.getString("email"),
+            rs.getString("phone"),
+            rs.getString("dateAdded"),
+            rs.getString("teacher_name"),
+            rs.getString("classroom_name")
+        );
+        record.classroomId = rs.getString("classroom_id");
+        return record;
+    }
+
+    public int countStudentsForDisplay(StudentQuery q) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT COUNT(*)" + (q.text != null ? DISPLAY_FROM : " FROM students s") + q.where(params, null);
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindAll(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Keyset pagination: returns up to limit rows that sort after afterKey
+     * (null for the first page). The key of the last row is kept in the page
+     * so the caller can ask for the next one without an OFFSET scan.
+     */
+    public StudentPage getStudentDisplayPage(StudentQuery q, Object[] afterKey, int limit) {
+        List<Object> params = new ArrayList<>();
+        String sql = "SELECT " + DISPLAY_COLUMNS + ", " + q.sortExpression() + " AS sort_key" + DISPLAY_FROM
+                + q.where(params, afterKey) + q.orderBy() + " LIMIT " + limit;
+        StudentPage page = new StudentPage();
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindAll(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    page.rows.add(mapDisplayRecord(rs));
+                    page.lastKey = new Object[]{rs.getObject("sort_key"), rs.getString("student_id")};
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return page;
+    }
+
+    /** Sort key of the row at the given position; used to jump to a page that was never scrolled through. */
+    public Object[] getStudentDisplayKeyAt(StudentQuery q, int offset) {
+        List<Object> params = new ArrayList<>();
+        String from = q.needsJoins() ? DISPLAY_FROM : " FROM students s";
+        String sql = "SELECT " + q.sortExpression() + ", s.student_id" + from + q.where(params, null)
+                + q.orderBy() + " LIMIT 1 OFFSET " + offset;
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            bindAll(pstmt, params);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return new Object[]{rs.getObject(1), rs.getString(2)};
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public StudentDisplayRecord getStudentDisplayRecord(String studentId) {
+        String sql = "SELECT " + DISPLAY_COLUMNS + DISPLAY_FROM + " WHERE s.student_id = ?";
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return mapDisplayRecord(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /** Row index the student would have under the query, or -1 if the filter excludes it. */
+    public int getStudentDisplayPosition(StudentQuery q, String studentId) {
+        List<Object> params = new ArrayList<>();
+        String keySql = "SELECT " + q.sortExpression() + ", s.student_id" + DISPLAY_FROM + q.where(params, null, studentId);
+        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(keySql)) {
+            bindAll(pstmt, params);
+            Object[] key;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) return -1;
+                key = new Object[]{rs.getObject(1), rs.getString(2)};
+            }
+            StudentQuery reversed = q.withSort(q.sortColumn, !q.ascending);
+            params.clear();
+            String beforeSql = "SELECT COUNT(*)" + (q.needsJoins() ? DISPLAY_FROM : " FROM students s") + reversed.where(params, key);
+            try (PreparedStatement count = conn.prepareStatement(beforeSql)) {
+                bindAll(count, params);
+                try (ResultSet rs = count.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : -1;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    private static void bindAll(PreparedStatement pstmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            pstmt.setObject(i + 1, params.get(i));
+        }
+    }
     
-public boolean addStudent(Student s) {
-        String sql = "INSERT INTO students(student_id, name, address, phone, email, photoPath, age, gpa, year, status, major, dateAdded, previous_school, doc_application_path, doc_id_card_path, doc_transcript_path, classroom_id) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+    static final String INSERT_STUDENT_SQL = "INSERT INTO students(student_id, name, address, phone, email, photoPath, age, gpa, year, status, major, dateAdded, previous_school, doc_application_path, doc_id_card_path, doc_transcript_path, classroom_id) VALUES(?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    static void bindStudentInsert(PreparedStatement pstmt, Student s) throws SQLException {
+        pstmt.setString(1, s.id); pstmt.setString(2, s.name); pstmt.setString(3, s.address);
+        pstmt.setString(4, s.phone); pstmt.setString(5, s.email); pstmt.setString(6, s.photoPath);
+        pstmt.setInt(7, s.age); pstmt.setDouble(8, s.gpa); pstmt.setInt(9, s.year);
+        pstmt.setString(10, s.status.name()); pstmt.setString(11, s.major); pstmt.setString(12, s.dateAdded);
+        pstmt.setString(13, s.previousSchool); pstmt.setString(14, s.docApplicationPath);
+        pstmt.setString(15, s.docIdCardPath); pstmt.setString(16, s.docTranscriptPath);
+        pstmt.setString(17, s.classroomId);
+    }
+
+    public boolean addStudent(Student s) {
         try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, s.id); pstmt.setString(2, s.name); pstmt.setString(3, s.address);
-            pstmt.setString(4, s.phone); pstmt.setString(5, s.email); pstmt.setString(6, s.photoPath);
-            pstmt.setInt(7, s.age); pstmt.setDouble(8, s.gpa); pstmt.setInt(9, s.year);
-            pstmt.setString(10, s.status.name()); pstmt.setString(11, s.major); pstmt.setString(12, s.dateAdded);
-            pstmt.setString(13, s.previousSchool); pstmt.setString(14, s.docApplicationPath);
-            pstmt.setString(15, s.docIdCardPath); pstmt.setString(16, s.docTranscriptPath);
-            pstmt.setString(17, s.classroomId);
-            pstmt.executeUpdate();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_STUDENT_SQL)) {
+            bindStudentInsert(pstmt, s);
+            STUDENT_COUNT.adjust(pstmt.executeUpdate());
+            publishChange(EntityType.STUDENT, s.id, ChangeKind.INSERTED);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
 
+    // for bulk writers that bypass addStudent
+    void noteStudentsInserted(int count) {
+        STUDENT_COUNT.adjust(count);
+    }
+
     public boolean updateStudent(Student s) {
         String sql = "UPDATE students SET name = ?, address = ?, phone = ?, email = ?, photoPath = ?, age = ?, gpa = ?, year = ?, status = ?, major = ?, previous_school = ?, doc_application_path = ?, doc_id_card_path = ?, doc_transcript_path = ?, classroom_id = ? WHERE student_id = ?";
         try (Connection conn = connect();
@@ -1112,6 +1370,7 @@ public boolean addStudent(Student s) {
             pstmt.setString(15, s.classroomId);
             pstmt.setString(16, s.id);
             pstmt.executeUpdate();
+            publishChange(EntityType.STUDENT, s.id, ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -1121,7 +1380,8 @@ public boolean addStudent(Student s) {
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, id);
-            pstmt.executeUpdate();
+            STUDENT_COUNT.adjust(-pstmt.executeUpdate());
+            publishChange(EntityType.STUDENT, id, ChangeKind.DELETED);
             return true;
         } catch (SQLException e) { e.printStackTrace(); return false; }
     }
@@ -1172,6 +1432,7 @@ public boolean addStudent(Student s) {
             pstmt.setString(3, endDate);
             pstmt.setString(4, reason);
             pstmt.executeUpdate();
+            publishChange(EntityType.LEAVE_REQUEST, null, ChangeKind.INSERTED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1180,16 +1441,27 @@ public boolean addStudent(Student s) {
     }
 
     public ArrayList<LeaveRequest> getAllLeaveRequests() {
+        return getLeaveRequests(null);
+    }
+
+    public LeaveRequest getLeaveRequestById(int leaveId) {
+        ArrayList<LeaveRequest> list = getLeaveRequests(leaveId);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    private ArrayList<LeaveRequest> getLeaveRequests(Integer leaveId) {
         ArrayList<LeaveRequest> requests = new ArrayList<>();
         String sql = """
             SELECT lr.*, t.name AS teacher_name 
             FROM leave_requests lr
             JOIN teachers t ON lr.teacher_id = t.teacher_id
+            WHERE ?1 IS NULL OR lr.leave_id = ?1
             ORDER BY lr.leave_id DESC
             """;
         try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setObject(1, leaveId);
+            ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
                 requests.add(new LeaveRequest(
                     rs.getInt("leave_id"),
@@ -1213,6 +1485,7 @@ public boolean addStudent(Student s) {
             pstmt.setString(1, newStatus);
             pstmt.setInt(2, leaveId);
             pstmt.executeUpdate();
+            publishChange(EntityType.LEAVE_REQUEST, String.valueOf(leaveId), ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1295,91 +1568,184 @@ public boolean addStudent(Student s) {
         }
     }
 
+    private static boolean countsTowardGpa(String grade) {
+        return grade != null && !grade.equals("W") && !grade.equals("N/A");
+    }
+
+    /**
+     * Changes one grade and, in the same transaction, moves the student's
+     * total_points / total_credits by the difference between the old and the
+     * new grade, so the GPA stays current without re-reading the transcript.
+     */
     public boolean updateGrade(int enrollmentId, String grade) {
-        String sql = "UPDATE enrollments SET grade = ? WHERE enrollment_id = ?";
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, grade);
-            pstmt.setInt(2, enrollmentId);
-            pstmt.executeUpdate();
+        String sqlOld = """
+            SELECT e.student_id, e.grade, IFNULL(sub.credits, 0) AS credits
+            FROM enrollments e
+            LEFT JOIN subjects sub ON sub.subject_id = e.subject_id
+            WHERE e.enrollment_id = ?
+            """;
+        String sqlGrade = "UPDATE enrollments SET grade = ? WHERE enrollment_id = ?";
+        String sqlTotals = """
+            UPDATE students
+            SET total_points = total_points + ?1,
+                total_credits = total_credits + ?2,
+                gpa = CASE WHEN total_credits + ?2 > 0 THEN (total_points + ?1) / (total_credits + ?2) ELSE gpa END
+            WHERE student_id = ?3
+            """;
+
+        Connection conn = null;
+        try {
+            conn = connect();
+            conn.setAutoCommit(false);
+            String studentId;
+            String oldGrade;
+            int credits;
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlOld)) {
+                pstmt.setInt(1, enrollmentId);
+                ResultSet rs = pstmt.executeQuery();
+                if (!rs.next()) {
+                    conn.rollback();
+                    return false;
+                }
+                studentId = rs.getString("student_id");
+                oldGrade = rs.getString("grade");
+                credits = rs.getInt("credits");
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlGrade)) {
+                pstmt.setString(1, grade);
+                pstmt.setInt(2, enrollmentId);
+                pstmt.executeUpdate();
+            }
+
+            double pointsDelta = 0;
+            int creditsDelta = 0;
+            if (countsTowardGpa(oldGrade)) {
+                pointsDelta -= gradeToPoint(oldGrade) * credits;
+                creditsDelta -= credits;
+            }
+            if (countsTowardGpa(grade)) {
+                pointsDelta += gradeToPoint(grade) * credits;
+                creditsDelta += credits;
+            }
+            boolean gpaChanged = pointsDelta != 0 || creditsDelta != 0;
+            if (gpaChanged) {
+                try (PreparedStatement pstmt = conn.prepareStatement(sqlTotals)) {
+                    pstmt.setDouble(1, pointsDelta);
+                    pstmt.setInt(2, creditsDelta);
+                    pstmt.setString(3, studentId);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            if (gpaChanged) publishChange(EntityType.STUDENT, studentId, ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             return false;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) { e.printStackTrace(); }
         }
     }
 
+    // GPA from the maintained totals; only written back (and announced) if the stored value drifted.
+    // With no graded credits the stored GPA is returned as is: it may have been entered by hand or imported.
     public double calculateAndUpdatStudentGPA(String studentId) {
-        ArrayList<EnrollmentRecord> records = getEnrollmentsForStudent(studentId);
-        
-        double totalPoints = 0;
-        int totalCredits = 0;
-
-        for (EnrollmentRecord record : records) {
-            if (record.grade != null && !record.grade.equals("W") && !record.grade.equals("N/A")) {
-                double point = gradeToPoint(record.grade);
-                totalPoints += (point * record.credits);
-                totalCredits += record.credits;
+        String sql = "SELECT total_points, total_credits, gpa FROM students WHERE student_id = ?";
+        try (Connection conn = connect()) {
+            double gpax;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, studentId);
+                ResultSet rs = pstmt.executeQuery();
+                if (!rs.next()) return 0.0;
+                int totalCredits = rs.getInt("total_credits");
+                if (totalCredits == 0) return rs.getDouble("gpa");
+                gpax = rs.getDouble("total_points") / totalCredits;
+                if (gpax == rs.getDouble("gpa")) return gpax;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("UPDATE students SET gpa = ? WHERE student_id = ?")) {
+                pstmt.setDouble(1, gpax);
+                pstmt.setString(2, studentId);
+                pstmt.executeUpdate();
             }
-        }
-
-        double gpax = (totalCredits == 0) ? 0.0 : (totalPoints / totalCredits);
-
-        String sql = "UPDATE students SET gpa = ? WHERE student_id = ?";
-        try (Connection conn = connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, gpax);
-            pstmt.setString(2, studentId);
-            pstmt.executeUpdate();
+            publishChange(EntityType.STUDENT, studentId, ChangeKind.UPDATED);
+            return gpax;
         } catch (SQLException e) {
             e.printStackTrace();
+            return 0.0;
         }
-        
-        return gpax;
     }
     public ArrayList<FinanceSummary> getAllStudentFinanceSummary() {
-        ArrayList<FinanceSummary> summaries = new ArrayList<>();
-        String sql = "SELECT student_id, name FROM students ORDER BY student_id";
+        return getStudentFinanceSummaries(null, null, -1, 0);
+    }
 
+    // One student's row of the finance table (all semesters), or null if there is no such student.
+    public FinanceSummary getStudentFinanceSummary(String studentId) {
+        String sql = """
+            SELECT s.student_id, s.name,
+                   COALESCE(SUM(i.total_amount), 0) AS total_due,
+                   COALESCE(SUM(i.amount_paid), 0) AS total_paid
+            FROM students s
+            LEFT JOIN Invoices i ON i.student_id = s.student_id
+            WHERE s.student_id = ?
+            GROUP BY s.student_id, s.name
+            """;
         try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                String studentId = rs.getString("student_id");
-                String studentName = rs.getString("name");
-                
-                double totalDue = getTotalDueForStudent(conn, studentId);
-                double totalPaid = getTotalPaidForStudent(conn, studentId);
-                
-                summaries.add(new FinanceSummary(studentId, studentName, totalDue, totalPaid));
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, studentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new FinanceSummary(rs.getString("student_id"), rs.getString("name"),
+                            rs.getDouble("total_due"), rs.getDouble("total_paid"));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return summaries;
+        return null;
     }
 
-    private double getTotalDueForStudent(Connection conn, String studentId) throws SQLException {
-        String sql = "SELECT SUM(total_amount) FROM Invoices WHERE student_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, studentId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble(1);
-            }
-        }
-        return 0;
-    }
-    
-    private double getTotalPaidForStudent(Connection conn, String studentId) throws SQLException {
-        String sql = "SELECT SUM(amount_paid) FROM Transactions WHERE student_id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, studentId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble(1);
+    // semesterId / status (PAID, PENDING) may be null for "all"; limit -1 means no limit.
+    public ArrayList<FinanceSummary> getStudentFinanceSummaries(String semesterId, String status, int limit, int offset) {
+        ArrayList<FinanceSummary> summaries = new ArrayList<>();
+        String sql = """
+            SELECT s.student_id, s.name,
+                   COALESCE(d.total_due, 0) AS total_due,
+                   COALESCE(d.total_paid, 0) AS total_paid
+            FROM students s
+            LEFT JOIN (
+                SELECT student_id, SUM(total_amount) AS total_due, SUM(amount_paid) AS total_paid
+                FROM Invoices
+                WHERE ?1 IS NULL OR semester_id = ?1
+                GROUP BY student_id
+            ) d ON d.student_id = s.student_id
+            WHERE ?2 IS NULL
+               OR ?2 = CASE WHEN COALESCE(d.total_due, 0) - COALESCE(d.total_paid, 0) <= 0 THEN 'PAID' ELSE 'PENDING' END
+            ORDER BY s.student_id
+            LIMIT ?3 OFFSET ?4
+            """;
+
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, semesterId);
+            pstmt.setString(2, status);
+            pstmt.setInt(3, limit);
+            pstmt.setInt(4, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new FinanceSummary(
+                        rs.getString("student_id"),
+                        rs.getString("name"),
+                        rs.getDouble("total_due"),
+                        rs.getDouble("total_paid")
+                    ));
+                }
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
-        return 0;
+        return summaries;
     }
 
     public ArrayList<Invoice> getInvoicesForStudent(String studentId) {
@@ -1451,106 +1817,23 @@ public boolean addStudent(Student s) {
     }
 
     public int generateInvoicesForSemester(String semesterId, double baseFee, String issueDate, String dueDate) {
-        String sqlFindStudents = "SELECT student_id FROM students WHERE status = 'ENROLLED'";
-        String sqlInsertInvoice = "INSERT INTO Invoices(student_id, semester_id, issue_date, due_date, total_amount, status) VALUES (?, ?, ?, ?, ?, 'PENDING')";
-        String sqlInsertItem = "INSERT INTO InvoiceItems(invoice_id, description, amount) VALUES (?, ?, ?)";
-        
-        int count = 0;
-        Connection conn = null;
         try {
-            conn = connect();
-            conn.setAutoCommit(false);
-
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(sqlFindStudents)) {
-                 
-                while (rs.next()) {
-                    String studentId = rs.getString("student_id");
-                    
-                    try (PreparedStatement pstmtInv = conn.prepareStatement(sqlInsertInvoice, Statement.RETURN_GENERATED_KEYS)) {
-                        pstmtInv.setString(1, studentId);
-                        pstmtInv.setString(2, semesterId);
-                        pstmtInv.setString(3, issueDate);
-                        pstmtInv.setString(4, dueDate);
-                        pstmtInv.setDouble(5, baseFee);
-                        pstmtInv.executeUpdate();
-                        
-                        int invoiceId;
-                        try (ResultSet generatedKeys = pstmtInv.getGeneratedKeys()) {
-                            if (generatedKeys.next()) {
-                                invoiceId = generatedKeys.getInt(1);
-                            } else {
-                                throw new SQLException("Creating invoice failed, no ID obtained.");
-                            }
-                        }
-                        
-                        try (PreparedStatement pstmtItem = conn.prepareStatement(sqlInsertItem)) {
-                            pstmtItem.setInt(1, invoiceId);
-                            pstmtItem.setString(2, "Base Tuition Fee - Semester " + semesterId);
-                            pstmtItem.setDouble(3, baseFee);
-                            pstmtItem.executeUpdate();
-                        }
-                        count++;
-                    }
-                }
-            }
-            conn.commit();
+            BillingRunResult result = new SemesterBillingRun(this).run(semesterId, baseFee, issueDate, dueDate, null, null);
+            return result.created;
         } catch (SQLException e) {
             e.printStackTrace();
-            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
             return -1;
-        } finally {
-            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) { e.printStackTrace(); }
         }
-        return count;
     }
 
     public boolean addPayment(Transaction tx) {
-        String sqlInsertTx = "INSERT INTO Transactions(invoice_id, student_id, payment_date, amount_paid, payment_method, reference_code) VALUES (?, ?, ?, ?, ?, ?)";
-        String sqlCheckInvoice = "SELECT total_amount FROM Invoices WHERE invoice_id = ?";
-        String sqlSumPayments = "SELECT SUM(amount_paid) FROM Transactions WHERE invoice_id = ?";
-        String sqlUpdateInvoice = "UPDATE Invoices SET status = 'PAID' WHERE invoice_id = ?";
-
         Connection conn = null;
         try {
             conn = connect();
             conn.setAutoCommit(false); // ⭐️ เริ่ม Transaction
-
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlInsertTx)) {
-                pstmt.setInt(1, tx.invoiceId);
-                pstmt.setString(2, tx.studentId);
-                pstmt.setString(3, tx.paymentDate);
-                pstmt.setDouble(4, tx.amountPaid);
-                pstmt.setString(5, tx.paymentMethod);
-                pstmt.setString(6, tx.referenceCode);
-                pstmt.executeUpdate();
-            }
-
-            // 2. ตรวจสอบว่าจ่ายครบหรือยัง
-            double totalDue = 0;
-            double totalPaid = 0;
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlCheckInvoice)) {
-                pstmt.setInt(1, tx.invoiceId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) totalDue = rs.getDouble(1);
-            }
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlSumPayments)) {
-                pstmt.setInt(1, tx.invoiceId);
-                ResultSet rs = pstmt.executeQuery();
-                if (rs.next()) totalPaid = rs.getDouble(1);
-            }
-            
-            // 3. ถ้าครบ, อัปเดตสถานะ Invoice
-            if (totalPaid >= totalDue) {
-                try (PreparedStatement pstmt = conn.prepareStatement(sqlUpdateInvoice)) {
-                    pstmt.setInt(1, tx.invoiceId);
-                    pstmt.executeUpdate();
-                }
-            }
-            
+            postPayment(tx, conn);
             conn.commit(); // ⭐️ ยืนยัน Transaction
+            publishChange(EntityType.STUDENT_FINANCE, tx.studentId, ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1591,6 +1874,7 @@ public boolean addStudent(Student s) {
 
             if (paymentSuccess) {
                 conn.commit();
+                publishChange(EntityType.STUDENT_FINANCE, aid.studentId, ChangeKind.UPDATED);
                 return true;
             } else {
                 throw new SQLException("Failed to create internal transaction for financial aid.");
@@ -1606,11 +1890,21 @@ public boolean addStudent(Student s) {
     }
 
     private boolean addPaymentInternal(Transaction tx, Connection conn) throws SQLException {
+        postPayment(tx, conn);
+        return true;
+    }
+
+    // Inserts the transaction and moves the invoice's running totals in the caller's transaction.
+    private void postPayment(Transaction tx, Connection conn) throws SQLException {
         String sqlInsertTx = "INSERT INTO Transactions(invoice_id, student_id, payment_date, amount_paid, payment_method, reference_code) VALUES (?, ?, ?, ?, ?, ?)";
-        String sqlCheckInvoice = "SELECT total_amount FROM Invoices WHERE invoice_id = ?";
-        String sqlSumPayments = "SELECT SUM(amount_paid) FROM Transactions WHERE invoice_id = ?";
-        String sqlUpdateInvoice = "UPDATE Invoices SET status = 'PAID' WHERE invoice_id = ?";
-        
+        String sqlApplyToInvoice = """
+            UPDATE Invoices
+            SET amount_paid = amount_paid + ?1,
+                balance = total_amount - (amount_paid + ?1),
+                status = CASE WHEN total_amount - (amount_paid + ?1) <= 0 THEN 'PAID' ELSE status END
+            WHERE invoice_id = ?2
+            """;
+
         try (PreparedStatement pstmt = conn.prepareStatement(sqlInsertTx)) {
             pstmt.setInt(1, tx.invoiceId);
             pstmt.setString(2, tx.studentId);
@@ -1621,28 +1915,62 @@ public boolean addStudent(Student s) {
             pstmt.executeUpdate();
         }
 
-        double totalDue = 0;
-        double totalPaid = 0;
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sqlCheckInvoice)) {
-            pstmt.setInt(1, tx.invoiceId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) totalDue = rs.getDouble(1);
+        try (PreparedStatement pstmt = conn.prepareStatement(sqlApplyToInvoice)) {
+            pstmt.setDouble(1, tx.amountPaid);
+            pstmt.setInt(2, tx.invoiceId);
+            pstmt.executeUpdate();
         }
-        
-        try (PreparedStatement pstmt = conn.prepareStatement(sqlSumPayments)) {
-            pstmt.setInt(1, tx.invoiceId);
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) totalPaid = rs.getDouble(1);
+    }
+
+    // Invoices whose materialized amount_paid / balance disagree with the Transactions ledger.
+    public ArrayList<Integer> findInconsistentInvoiceBalances() {
+        ArrayList<Integer> invoiceIds = new ArrayList<>();
+        String sql = """
+            SELECT i.invoice_id
+            FROM Invoices i
+            LEFT JOIN (
+                SELECT invoice_id, SUM(amount_paid) AS paid
+                FROM Transactions
+                GROUP BY invoice_id
+            ) t ON t.invoice_id = i.invoice_id
+            WHERE ABS(i.amount_paid - COALESCE(t.paid, 0)) > 0.005
+               OR ABS(i.balance - (i.total_amount - i.amount_paid)) > 0.005
+               OR (i.balance <= 0 AND i.status <> 'PAID')
+               OR (i.balance > 0 AND i.status = 'PAID')
+            ORDER BY i.invoice_id
+            """;
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                invoiceIds.add(rs.getInt(1));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
-        
-        if (totalPaid >= totalDue) {
-            try (PreparedStatement pstmt = conn.prepareStatement(sqlUpdateInvoice)) {
-                pstmt.setInt(1, tx.invoiceId);
-                pstmt.executeUpdate();
+        return invoiceIds;
+    }
+
+    public boolean repairInvoiceBalances() {
+        Connection conn = null;
+        try {
+            conn = connect();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate(BACKFILL_INVOICE_PAID_SQL);
+                stmt.executeUpdate(BACKFILL_INVOICE_BALANCE_SQL);
+                stmt.executeUpdate(REPAIR_INVOICE_STATUS_SQL);
             }
+            conn.commit();
+            publishChange(EntityType.STUDENT_FINANCE, null, ChangeKind.BULK);
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            if (conn != null) try { conn.rollback(); } catch (SQLException ex) { ex.printStackTrace(); }
+            return false;
+        } finally {
+            if (conn != null) try { conn.setAutoCommit(true); conn.close(); } catch (SQLException e) { e.printStackTrace(); }
         }
-        return true;
     }
 
     public Invoice getInvoiceById(int invoiceId) {
@@ -1697,6 +2025,20 @@ public boolean addStudent(Student s) {
         } catch (SQLException e) { e.printStackTrace(); }
         return transactions;
     }
+    public GpaSummary getGpaSummary() {
+        String sql = "SELECT COUNT(*), AVG(IFNULL(gpa, 0)), SUM(CASE WHEN IFNULL(gpa, 0) < 2.0 THEN 1 ELSE 0 END) FROM students";
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return new GpaSummary(rs.getInt(1), rs.getDouble(2), rs.getInt(3));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return new GpaSummary(0, 0, 0);
+    }
+
     public ArrayList<DataPoint> getStudentCountPerMajor() {
         ArrayList<DataPoint> data = new ArrayList<>();
         String sql = "SELECT major, COUNT(*) as count FROM students GROUP BY major ORDER BY count DESC";
@@ -1786,18 +2128,8 @@ public boolean addStudent(Student s) {
         return new FinancialReport(totalDue, totalPaid, totalTx);
     }
     public void logActivity(String username, String action) {
-        String sql = "INSERT INTO activity_log(log_timestamp, username, action_description) VALUES (?, ?, ?)";
         String timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date());
-        
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, timestamp);
-            pstmt.setString(2, username);
-            pstmt.setString(3, action);
-            pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        AUDIT.submit(timestamp, username, action);
     }
 
     public ArrayList<UserAccount> getAllUserAccounts() {
@@ -1817,6 +2149,7 @@ public boolean addStudent(Student s) {
 
     public ArrayList<ActivityLog> getActivityLogs() {
         ArrayList<ActivityLog> logs = new ArrayList<>();
+        AUDIT.flush(2000); // show entries that are still queued
         String sql = "SELECT * FROM activity_log ORDER BY log_id DESC LIMIT 100";
         try (Connection conn = connect();
              Statement stmt = conn.createStatement();
@@ -1857,6 +2190,7 @@ public boolean addStudent(Student s) {
             pstmt.setString(1, newRole.name());
             pstmt.setString(2, username);
             pstmt.executeUpdate();
+            publishChange(EntityType.USER, username, ChangeKind.UPDATED);
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1866,12 +2200,13 @@ public boolean addStudent(Student s) {
 
     public boolean deleteUser(String username, Role role) {
         Connection conn = null;
+        int studentsDeleted = 0;
         try {
             conn = connect();
             conn.setAutoCommit(false); 
             if (role == Role.STUDENT) {
                 runSqlInTransaction(conn, "DELETE FROM enrollments WHERE student_id = ?", new Object[]{username});
-                runSqlInTransaction(conn, "DELETE FROM students WHERE student_id = ?", new Object[]{username});
+                studentsDeleted = runSqlInTransaction(conn, "DELETE FROM students WHERE student_id = ?", new Object[]{username});
             } else if (role == Role.TEACHER) {
                 runSqlInTransaction(conn, "DELETE FROM teaching_assignments WHERE teacher_id = ?", new Object[]{username});
                 runSqlInTransaction(conn, "DELETE FROM leave_requests WHERE teacher_id = ?", new Object[]{username});
@@ -1881,6 +2216,16 @@ public boolean addStudent(Student s) {
             runSqlInTransaction(conn, "DELETE FROM users WHERE username = ?", new Object[]{username});
 
             conn.commit();
+            STUDENT_COUNT.adjust(-studentsDeleted);
+            publishChange(EntityType.USER, username, ChangeKind.DELETED);
+            if (role == Role.STUDENT) {
+                publishChange(EntityType.STUDENT, username, ChangeKind.DELETED);
+            } else if (role == Role.TEACHER) {
+                // teacher names are shown on subjects, classrooms and leave requests
+                publishChange(EntityType.SUBJECT, null, ChangeKind.BULK);
+                publishChange(EntityType.CLASSROOM, null, ChangeKind.BULK);
+                publishChange(EntityType.LEAVE_REQUEST, null, ChangeKind.BULK);
+            }
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1891,14 +2236,14 @@ public boolean addStudent(Student s) {
         }
     }
 
-    private void runSqlInTransaction(Connection conn, String sql, Object[] params) throws SQLException {
+    private int runSqlInTransaction(Connection conn, String sql, Object[] params) throws SQLException {
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             if (params != null) {
                 for (int i = 0; i < params.length; i++) {
                     pstmt.setObject(i + 1, params[i]);
                 }
             }
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate();
         }
     }
 
@@ -2069,6 +2414,18 @@ class DataPoint {
     }
 }
 
+class GpaSummary {
+    int totalStudents;
+    double averageGpa;
+    int lowGpaCount;
+
+    public GpaSummary(int totalStudents, double averageGpa, int lowGpaCount) {
+        this.totalStudents = totalStudents;
+        this.averageGpa = averageGpa;
+        this.lowGpaCount = lowGpaCount;
+    }
+}
+
 class FinancialReport {
     double totalDue;
     double totalPaid;
@@ -0,0 +1,140 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+class GpaRecomputeResult {
+    int scanned;
+    int changed;
+    int chunks;
+    boolean cancelled;
+    long elapsedMillis;
+
+    @Override
+    public String toString() {
+        return String.format("scanned=%d changed=%d chunks=%d cancelled=%s elapsed=%dms",
+                scanned, changed, chunks, cancelled, elapsedMillis);
+    }
+}
+
+/**
+ * Recomputes total_points / total_credits / gpa for every student, or for one
+ * year and/or classroom, from their graded enrollments. The totals for the
+ * whole cohort come from a single grouped query; only students whose stored
+ * values differ are rewritten, in chunked transactions so the write lock is
+ * released between chunks. Each chunk recomputes its students' totals inside
+ * its own transaction, so a grade written after the scan is never overwritten
+ * with the scan's older totals. A student with no graded credits keeps the
+ * stored GPA, which may have been entered by hand or imported. Use it after
+ * grade imports or a change to the grade point scale
+ * (DatabaseManager.GRADE_POINT_SQL).
+ */
+class GpaRecomputeJob {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String SQL_COHORT_TOTALS =
+            "SELECT s.student_id, IFNULL(s.gpa, 0) AS gpa, s.total_points, s.total_credits, " +
+            "COALESCE(SUM(" + DatabaseManager.GRADE_POINT_SQL + " * sub.credits), 0) AS points, " +
+            "COALESCE(SUM(sub.credits), 0) AS credits " +
+            "FROM students s " +
+            "LEFT JOIN enrollments e ON e.student_id = s.student_id AND " + DatabaseManager.COUNTS_TOWARD_GPA_SQL + " " +
+            "LEFT JOIN subjects sub ON sub.subject_id = e.subject_id " +
+            "WHERE (?1 IS NULL OR s.year = ?1) AND (?2 IS NULL OR s.classroom_id = ?2) " +
+            "GROUP BY s.student_id ORDER BY s.student_id";
+
+    // SQLite before 3.32 allows at most 999 bound parameters per statement
+    private static final int MAX_CHUNK_SIZE = 999;
+
+    private final DatabaseManager db;
+    private final int chunkSize;
+
+    GpaRecomputeJob(DatabaseManager db) {
+        this(db, DEFAULT_CHUNK_SIZE);
+    }
+
+    GpaRecomputeJob(DatabaseManager db, int chunkSize) {
+        this.db = db;
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MAX_CHUNK_SIZE));
+    }
+
+    /**
+     * @param year only students in this year; null for all years
+     * @param classroomId only students in this classroom; null for all classrooms
+     * @param progress receives (studentsWritten, studentsToWrite) after every committed chunk; may be null
+     * @param cancelled checked while scanning and between chunks; may be null
+     */
+    GpaRecomputeResult run(Integer year, String classroomId,
+                           BiConsumer<Integer, Integer> progress, BooleanSupplier cancelled) throws SQLException {
+        long start = System.currentTimeMillis();
+        GpaRecomputeResult result = new GpaRecomputeResult();
+
+        try (Connection conn = db.connect()) {
+            List<String> stale = findStale(conn, year, classroomId, result, cancelled);
+            if (progress != null && !result.cancelled) progress.accept(0, stale.size());
+
+            conn.setAutoCommit(false);
+            try {
+                for (int from = 0; from < stale.size() && !result.cancelled; from += chunkSize) {
+                    if (cancelled != null && cancelled.getAsBoolean()) {
+                        result.cancelled = true;
+                        break;
+                    }
+                    int to = Math.min(from + chunkSize, stale.size());
+                    List<String> chunk = stale.subList(from, to);
+                    String inChunk = " student_id IN (" + "?,".repeat(chunk.size() - 1) + "?)";
+                    try (PreparedStatement totals = conn.prepareStatement(DatabaseManager.RECOMPUTE_GPA_TOTALS_SQL + " WHERE" + inChunk);
+                         PreparedStatement gpa = conn.prepareStatement(DatabaseManager.RECOMPUTE_GPA_SQL + " WHERE total_credits > 0 AND" + inChunk)) {
+                        for (int i = 0; i < chunk.size(); i++) {
+                            totals.setString(i + 1, chunk.get(i));
+                            gpa.setString(i + 1, chunk.get(i));
+                        }
+                        result.changed += totals.executeUpdate();
+                        gpa.executeUpdate();
+                        conn.commit();
+                        result.chunks++;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
+                    if (progress != null) progress.accept(to, stale.size());
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (result.changed > 0) db.publishChange(EntityType.STUDENT, null, ChangeKind.BULK);
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    // Same arithmetic as RECOMPUTE_GPA_TOTALS_SQL / RECOMPUTE_GPA_SQL; the GPA is only compared when there are graded credits.
+    private List<String> findStale(Connection conn, Integer year, String classroomId,
+                                   GpaRecomputeResult result, BooleanSupplier cancelled) throws SQLException {
+        List<String> stale = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_COHORT_TOTALS)) {
+            pstmt.setObject(1, year);
+            pstmt.setString(2, classroomId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if ((result.scanned & 0x3FF) == 0 && cancelled != null && cancelled.getAsBoolean()) {
+                        result.cancelled = true;
+                        break;
+                    }
+                    result.scanned++;
+                    double points = rs.getDouble("points");
+                    int credits = rs.getInt("credits");
+                    if (points != rs.getDouble("total_points") || credits != rs.getInt("total_credits")
+                            || (credits > 0 && points / credits != rs.getDouble("gpa"))) {
+                        stale.add(rs.getString("student_id"));
+                    }
+                }
+            }
+        }
+        return stale;
+    }
+}
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 public class GradeManagementDialog extends JDialog {
 
     private DatabaseManager dbManager;
+    private AsyncDao dao;
     private int enrollmentId;
     private String initialFinalGrade;
 
@@ -17,6 +18,7 @@ public class GradeManagementDialog extends JDialog {
     public GradeManagementDialog(JFrame parent, DatabaseManager dbManager, int enrollmentId, String studentName, String subjectName, String finalGrade) {
         super(parent, "Manage Grades for " + studentName, true);
         this.dbManager = dbManager;
+        this.dao = new AsyncDao(dbManager);
         this.enrollmentId = enrollmentId;
         this.initialFinalGrade = finalGrade;
 
@@ -62,11 +64,13 @@ public class GradeManagementDialog extends JDialog {
     }
 
     private void loadAssignmentGrades() {
-        assignmentModel.setRowCount(0);
-        currentGrades = dbManager.getAssignmentGradesForEnrollment(enrollmentId);
-        for (AssignmentGrade grade : currentGrades) {
-            assignmentModel.addRow(new Object[]{grade.assignmentName, grade.score, grade.maxScore});
-        }
+        dao.load(this, assignmentModel, db -> db.getAssignmentGradesForEnrollment(enrollmentId), grades -> {
+            currentGrades = grades;
+            assignmentModel.setRowCount(0);
+            for (AssignmentGrade grade : currentGrades) {
+                assignmentModel.addRow(new Object[]{grade.assignmentName, grade.score, grade.maxScore});
+            }
+        });
     }
 
     private void addScore() {
@@ -77,11 +81,13 @@ public class GradeManagementDialog extends JDialog {
             double score = Double.parseDouble(JOptionPane.showInputDialog(this, "Enter score:"));
             double maxScore = Double.parseDouble(JOptionPane.showInputDialog(this, "Enter max score (e.g., 100):"));
             
-            if (dbManager.addAssignmentGrade(enrollmentId, name.trim(), score, maxScore)) {
-                loadAssignmentGrades();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to add score.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.addAssignmentGrade(enrollmentId, name.trim(), score, maxScore), success -> {
+                if (success) {
+                    loadAssignmentGrades();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to add score.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid number format.", "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -103,11 +109,13 @@ public class GradeManagementDialog extends JDialog {
             double score = Double.parseDouble((String) JOptionPane.showInputDialog(this, "Enter score:", "Edit Score", JOptionPane.PLAIN_MESSAGE, null, null, selectedGrade.score));
             double maxScore = Double.parseDouble((String) JOptionPane.showInputDialog(this, "Enter max score:", "Edit Score", JOptionPane.PLAIN_MESSAGE, null, null, selectedGrade.maxScore));
 
-            if (dbManager.updateAssignmentGrade(selectedGrade.gradeId, name.trim(), score, maxScore)) {
-                loadAssignmentGrades();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update score.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.updateAssignmentGrade(selectedGrade.gradeId, name.trim(), score, maxScore), success -> {
+                if (success) {
+                    loadAssignmentGrades();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update score.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid number format.", "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -124,11 +132,13 @@ public class GradeManagementDialog extends JDialog {
         int confirm = JOptionPane.showConfirmDialog(this, "Delete score for '" + selectedGrade.assignmentName + "'?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (dbManager.deleteAssignmentGrade(selectedGrade.gradeId)) {
-                loadAssignmentGrades();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete score.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.deleteAssignmentGrade(selectedGrade.gradeId), success -> {
+                if (success) {
+                    loadAssignmentGrades();
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete score.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -139,15 +149,17 @@ public class GradeManagementDialog extends JDialog {
             return;
         }
 
-        if (dbManager.updateGrade(enrollmentId, newGrade)) {
-            // (ดึง studentId มาจาก EnrollmentRecord ใน GUI หลัก)
-            // เราต้องหา studentId... 
-            // อ้อ! เราไม่ได้ส่ง studentId มา...
-            // ไม่เป็นไร เราจะให้ GUI หลักเป็นคนคำนวณ GPA ทีหลัง
-            JOptionPane.showMessageDialog(this, "Final grade saved successfully!");
-            dispose(); // ปิดหน้าต่าง
-        } else {
-            JOptionPane.showMessageDialog(this, "Failed to save final grade.", "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        dao.submit(this, db -> db.updateGrade(enrollmentId, newGrade), success -> {
+            if (success) {
+                // (ดึง studentId มาจาก EnrollmentRecord ใน GUI หลัก)
+                // เราต้องหา studentId... 
+                // อ้อ! เราไม่ได้ส่ง studentId มา...
+                // ไม่เป็นไร เราจะให้ GUI หลักเป็นคนคำนวณ GPA ทีหลัง
+                JOptionPane.showMessageDialog(this, "Final grade saved successfully!");
+                dispose(); // ปิดหน้าต่าง
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to save final grade.", "Database Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
     }
 }
\ No newline at end of file
@@ -210,6 +210,8 @@ public class PanelFactory {
         adminTabs.addTab("👤 User Management", gui.createUserManagementPanel());
         adminTabs.addTab("📜 Activity Log", gui.createActivityLogPanel());
         adminTabs.addTab("💾 Backup / Restore", gui.createBackupPanel()); 
+        adminTabs.addTab("🩺 Diagnostics", gui.createDiagnosticsPanel());
+        adminTabs.addTab("🐢 Slow Queries", gui.createSlowQueryPanel());
 
         mainPanel.add(adminTabs, BorderLayout.CENTER);
         return mainPanel;
@@ -0,0 +1,253 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Square-bounded thumbnails of student photos. Photos are decoded off the EDT
+ * with source subsampling, so a 12 MP camera JPEG is never expanded to full
+ * size, scaled once to fit the box and written to a disk cache whose key
+ * includes the file's mtime (a replaced photo gets a new entry). Decoded
+ * thumbnails stay in an LRU held under a byte budget.
+ *
+ * Cache directory and budgets come from the photo.cache.dir,
+ * photo.cache.memory_bytes and photo.cache.disk_bytes system properties.
+ */
+class PhotoThumbnailService {
+
+    static final int PROFILE_SIZE = 150;
+
+    private static final PhotoThumbnailService SHARED = new PhotoThumbnailService(
+            new File(System.getProperty("photo.cache.dir", "thumbnail_cache")),
+            Long.getLong("photo.cache.memory_bytes", 32L << 20),
+            Long.getLong("photo.cache.disk_bytes", 128L << 20));
+
+    private final File cacheDir;
+    private final long memoryBudget;
+    private final long diskBudget;
+    private final ExecutorService decoder;
+
+    // access-ordered; guarded by this
+    private final LinkedHashMap<String, BufferedImage> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes = 0;
+    private final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> inFlight = new ConcurrentHashMap<>();
+    private volatile boolean diskPruned = false;
+
+    PhotoThumbnailService(File cacheDir, long memoryBudget, long diskBudget) {
+        this.cacheDir = cacheDir;
+        this.memoryBudget = memoryBudget;
+        this.diskBudget = diskBudget;
+        AtomicInteger n = new AtomicInteger();
+        this.decoder = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "photo-thumbnail-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    static PhotoThumbnailService shared() {
+        return SHARED;
+    }
+
+    /** Memory hit only, safe to call while painting; null if the photo has to be loaded first. */
+    ImageIcon getIfCached(String photoPath, int size) {
+        File file = photoFile(photoPath);
+        if (file == null) return null;
+        BufferedImage image = memoryGet(key(file, size));
+        return image != null ? new ImageIcon(image) : null;
+    }
+
+    /**
+     * Delivers the thumbnail to onEdt on the EDT; null if there is no photo or it
+     * cannot be read. Runs onEdt immediately when the thumbnail is in memory.
+     */
+    void load(String photoPath, int size, Consumer<ImageIcon> onEdt) {
+        ImageIcon cached = getIfCached(photoPath, size);
+        if (cached != null) {
+            onEdt.accept(cached);
+            return;
+        }
+        load(photoPath, size).whenComplete((image, error) -> SwingUtilities.invokeLater(() ->
+                onEdt.accept(image != null ? new ImageIcon(image) : null)));
+    }
+
+    CompletableFuture<BufferedImage> load(String photoPath, int size) {
+        File file = photoFile(photoPath);
+        if (file == null) return CompletableFuture.completedFuture(null);
+        String key = key(file, size);
+        BufferedImage hit = memoryGet(key);
+        if (hit != null) return CompletableFuture.completedFuture(hit);
+        // two views asking for the same photo share one decode
+        return inFlight.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            try {
+                BufferedImage image = loadThumbnail(file, size, k);
+                if (image != null) memoryPut(k, image);
+                return image;
+            } finally {
+                inFlight.remove(k);
+            }
+        }, decoder));
+    }
+
+    private BufferedImage loadThumbnail(File source, int size, String key) {
+        File cached = new File(cacheDir, digest(key) + ".jpg");
+        if (cached.isFile()) {
+            try {
+                BufferedImage image = ImageIO.read(cached);
+                if (image != null) {
+                    cached.setLastModified(System.currentTimeMillis());
+                    return image;
+                }
+            } catch (IOException e) {
+                // unreadable cache entry; decode the original again
+            }
+        }
+        try {
+            BufferedImage decoded = decodeSubsampled(source, size);
+            if (decoded == null) return null;
+            BufferedImage thumb = fit(decoded, size);
+            writeCache(cached, thumb);
+            return thumb;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Subsample while reading so the decoded image is only a little larger than the box.
+    private static BufferedImage decodeSubsampled(File source, int size) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source)) {
+            if (in == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.min(width, height) / (size * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Scales to fit inside size x size, keeping the aspect ratio, centred on white.
+    private static BufferedImage fit(BufferedImage src, int size) {
+        double scale = Math.min((double) size / src.getWidth(), (double) size / src.getHeight());
+        int w = Math.max(1, (int) Math.round(src.getWidth() * scale));
+        int h = Math.max(1, (int) Math.round(src.getHeight() * scale));
+        BufferedImage out = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.drawImage(src, (size - w) / 2, (size - h) / 2, w, h, null);
+        } finally {
+            g.dispose();
+        }
+        return out;
+    }
+
+    private void writeCache(File target, BufferedImage thumb) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) return;
+        File tmp = new File(cacheDir, target.getName() + ".tmp");
+        try {
+            if (ImageIO.write(thumb, "jpg", tmp) && (target.delete() || !target.exists()) && tmp.renameTo(target)) {
+                if (!diskPruned) {
+                    diskPruned = true;
+                    pruneDisk();
+                }
+                return;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        tmp.delete();
+    }
+
+    // Once per run: drop the least recently used entries beyond the disk budget.
+    private void pruneDisk() {
+        File[] files = cacheDir.listFiles((dir, name) -> name.endsWith(".jpg"));
+        if (files == null) return;
+        long total = 0;
+        for (File f : files) total += f.length();
+        if (total <= diskBudget) return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File f : files) {
+            if (total <= diskBudget) break;
+            long len = f.length();
+            if (f.delete()) total -= len;
+        }
+    }
+
+    private synchronized BufferedImage memoryGet(String key) {
+        return memory.get(key);
+    }
+
+    private synchronized void memoryPut(String key, BufferedImage image) {
+        BufferedImage old = memory.put(key, image);
+        if (old != null) memoryBytes -= bytes(old);
+        memoryBytes += bytes(image);
+        Iterator<Map.Entry<String, BufferedImage>> it = memory.entrySet().iterator();
+        while (memoryBytes > memoryBudget && it.hasNext()) {
+            Map.Entry<String, BufferedImage> eldest = it.next();
+            if (eldest.getKey().equals(key)) continue;
+            memoryBytes -= bytes(eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private static long bytes(BufferedImage image) {
+        return (long) image.getWidth() * image.getHeight() * 4;
+    }
+
+    private static File photoFile(String photoPath) {
+        if (photoPath == null || photoPath.isBlank()) return null;
+        File file = new File(photoPath);
+        return file.isFile() ? file : null;
+    }
+
+    private static String key(File file, int size) {
+        return file.getAbsolutePath() + "|" + file.lastModified() + "|" + size;
+    }
+
+    private static String digest(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) sb.append(String.format("%02x", b));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
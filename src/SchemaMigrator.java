@@ -0,0 +1,283 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+@FunctionalInterface
+interface MigrationStep {
+    void apply(Connection conn) throws SQLException;
+}
+
+class Migration {
+    final int version;
+    final String description;
+    final MigrationStep step;
+
+    Migration(int version, String description, MigrationStep step) {
+        this.version = version;
+        this.description = description;
+        this.step = step;
+    }
+
+    static Migration sql(int version, String description, String... statements) {
+        return new Migration(version, description, conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : statements) {
+                    stmt.execute(sql);
+                }
+            }
+        });
+    }
+}
+
+/**
+ * Applies schema changes exactly once, tracking progress in PRAGMA user_version.
+ * Each migration runs in its own transaction together with the version bump.
+ */
+class SchemaMigrator {
+
+    static final String[] SECONDARY_INDEXES = {
+        "CREATE INDEX IF NOT EXISTS idx_enrollments_student ON enrollments(student_id)",
+        "CREATE INDEX IF NOT EXISTS idx_enrollments_subject ON enrollments(subject_id)",
+        "CREATE INDEX IF NOT EXISTS idx_transactions_invoice ON Transactions(invoice_id)",
+        "CREATE INDEX IF NOT EXISTS idx_transactions_student ON Transactions(student_id)",
+        "CREATE INDEX IF NOT EXISTS idx_invoices_student_status ON Invoices(student_id, status)",
+        "CREATE INDEX IF NOT EXISTS idx_assignment_grades_enrollment ON assignment_grades(enrollment_id)",
+        "CREATE INDEX IF NOT EXISTS idx_teaching_assignments_subject ON teaching_assignments(subject_id)",
+        "CREATE INDEX IF NOT EXISTS idx_teaching_assignments_teacher ON teaching_assignments(teacher_id)",
+        "CREATE INDEX IF NOT EXISTS idx_students_classroom ON students(classroom_id)"
+    };
+
+    private static final List<Migration> MIGRATIONS = List.of(
+        Migration.sql(1, "Baseline schema (17 tables)", baselineSchema()),
+        new Migration(2, "Secondary indexes for foreign-key lookups", conn -> {
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : SECONDARY_INDEXES) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("ANALYZE");
+            }
+        }),
+        Migration.sql(3, "Materialized amount_paid / balance on Invoices",
+            "ALTER TABLE Invoices ADD COLUMN amount_paid REAL NOT NULL DEFAULT 0",
+            "ALTER TABLE Invoices ADD COLUMN balance REAL NOT NULL DEFAULT 0",
+            DatabaseManager.BACKFILL_INVOICE_PAID_SQL,
+            DatabaseManager.BACKFILL_INVOICE_BALANCE_SQL),
+        Migration.sql(4, "Indexes for semester billing runs",
+            "CREATE INDEX IF NOT EXISTS idx_invoices_student_semester ON Invoices(student_id, semester_id)",
+            "CREATE INDEX IF NOT EXISTS idx_invoice_items_invoice ON InvoiceItems(invoice_id)"),
+        Migration.sql(5, "Index for paging the student list by name",
+            "CREATE INDEX IF NOT EXISTS idx_students_name ON students(name, student_id)"),
+        // gpa is only recomputed for students with graded courses; others keep whatever was entered
+        Migration.sql(6, "Maintained GPA totals on students",
+            "ALTER TABLE students ADD COLUMN total_points REAL NOT NULL DEFAULT 0",
+            "ALTER TABLE students ADD COLUMN total_credits INTEGER NOT NULL DEFAULT 0",
+            DatabaseManager.RECOMPUTE_GPA_TOTALS_SQL,
+            DatabaseManager.RECOMPUTE_GPA_SQL + " WHERE total_credits > 0")
+    );
+
+    static int latestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    static int currentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    static int migrate(Connection conn) throws SQLException {
+        int current = currentVersion(conn);
+        if (current >= latestVersion()) {
+            System.out.println("Schema is up to date (version " + current + ").");
+            return 0;
+        }
+
+        int applied = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            conn.setAutoCommit(false);
+            for (Migration m : MIGRATIONS) {
+                if (m.version <= current) continue;
+                try (Statement stmt = conn.createStatement()) {
+                    m.step.apply(conn);
+                    stmt.execute("PRAGMA user_version = " + m.version);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw new SQLException("Schema migration " + m.version + " (" + m.description + ") failed", e);
+                }
+                System.out.println("Applied schema migration " + m.version + ": " + m.description);
+                current = m.version;
+                applied++;
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    private static String[] baselineSchema() {
+        String createUserTable = "CREATE TABLE IF NOT EXISTS users (username TEXT PRIMARY KEY, password_hash TEXT NOT NULL, role TEXT NOT NULL);";
+    
+        String createStudentsTable = """
+            CREATE TABLE IF NOT EXISTS students (
+                student_id TEXT PRIMARY KEY, name TEXT NOT NULL, address TEXT, phone TEXT, email TEXT, 
+                photoPath TEXT, age INTEGER, gpa REAL, year INTEGER, status TEXT, major TEXT, dateAdded TEXT,
+                previous_school TEXT, doc_application_path TEXT, doc_id_card_path TEXT, doc_transcript_path TEXT,
+                classroom_id TEXT, 
+                FOREIGN KEY (student_id) REFERENCES users(username),
+                FOREIGN KEY (classroom_id) REFERENCES classrooms(classroom_id) ON DELETE SET NULL
+            );""";
+
+        String createClassroomsTable = """
+            CREATE TABLE IF NOT EXISTS classrooms (
+                classroom_id TEXT PRIMARY KEY,
+                classroom_name TEXT NOT NULL,
+                teacher_id TEXT,
+                major_id TEXT,
+                classroom_type TEXT,
+                FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id) ON DELETE SET NULL,
+                FOREIGN KEY (major_id) REFERENCES majors(major_id) ON DELETE SET NULL
+            );""";
+    
+        String createTeachersTable = "CREATE TABLE IF NOT EXISTS teachers (teacher_id TEXT PRIMARY KEY, name TEXT NOT NULL, email TEXT, office TEXT, FOREIGN KEY (teacher_id) REFERENCES users(username));";
+    
+        String createMajorsTable = "CREATE TABLE IF NOT EXISTS majors (major_id TEXT PRIMARY KEY, major_name TEXT NOT NULL);";
+        String createSemestersTable = "CREATE TABLE IF NOT EXISTS semesters (semester_id TEXT PRIMARY KEY, semester_name TEXT NOT NULL);";
+
+        String createSubjectsTable = """
+            CREATE TABLE IF NOT EXISTS subjects (
+                subject_id TEXT PRIMARY KEY, 
+                subject_name TEXT NOT NULL, 
+                credits INTEGER,
+                major_id TEXT,
+                semester_id TEXT,
+                FOREIGN KEY (major_id) REFERENCES majors(major_id),
+                FOREIGN KEY (semester_id) REFERENCES semesters(semester_id)
+            );""";
+            
+        String createPrerequisitesTable = """
+            CREATE TABLE IF NOT EXISTS prerequisites (
+                subject_id TEXT NOT NULL,
+                prerequisite_subject_id TEXT NOT NULL,
+                PRIMARY KEY (subject_id, prerequisite_subject_id),
+                FOREIGN KEY (subject_id) REFERENCES subjects(subject_id),
+                FOREIGN KEY (prerequisite_subject_id) REFERENCES subjects(subject_id)
+            );""";
+
+        String createEnrollmentsTable = "CREATE TABLE IF NOT EXISTS enrollments (enrollment_id INTEGER PRIMARY KEY AUTOINCREMENT, student_id TEXT NOT NULL, subject_id TEXT NOT NULL, grade TEXT, FOREIGN KEY (student_id) REFERENCES students(student_id), FOREIGN KEY (subject_id) REFERENCES subjects(subject_id));";
+    
+        String createAssignmentsTable = """
+            CREATE TABLE IF NOT EXISTS teaching_assignments (
+                assignment_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                teacher_id TEXT NOT NULL,
+                subject_id TEXT NOT NULL,
+                room TEXT,
+                schedule_day TEXT,
+                schedule_time TEXT,
+                FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id),
+                FOREIGN KEY (subject_id) REFERENCES subjects(subject_id)
+            );""";
+
+        String createAssignmentGradesTable = """
+            CREATE TABLE IF NOT EXISTS assignment_grades (
+                grade_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                enrollment_id INTEGER NOT NULL,
+                assignment_name TEXT NOT NULL,
+                score REAL DEFAULT 0,
+                max_score REAL DEFAULT 100,
+                date_recorded TEXT,
+                FOREIGN KEY (enrollment_id) REFERENCES enrollments(enrollment_id) ON DELETE CASCADE
+            );""";
+            
+        String createLeaveRequestsTable = """
+            CREATE TABLE IF NOT EXISTS leave_requests (
+                leave_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                teacher_id TEXT NOT NULL,
+                start_date TEXT NOT NULL,
+                end_date TEXT NOT NULL,
+                reason TEXT,
+                status TEXT NOT NULL DEFAULT 'PENDING', 
+                FOREIGN KEY (teacher_id) REFERENCES teachers(teacher_id)
+            );""";
+
+        String createInvoicesTable = """
+            CREATE TABLE IF NOT EXISTS Invoices (
+                invoice_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                student_id TEXT NOT NULL,
+                semester_id TEXT,
+                issue_date TEXT NOT NULL,
+                due_date TEXT NOT NULL,
+                total_amount REAL NOT NULL,
+                status TEXT NOT NULL, 
+                FOREIGN KEY (student_id) REFERENCES students (student_id),
+                FOREIGN KEY (semester_id) REFERENCES semesters (semester_id)
+            );""";
+            
+        String createInvoiceItemsTable = """
+            CREATE TABLE IF NOT EXISTS InvoiceItems (
+                item_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                invoice_id INTEGER NOT NULL,
+                description TEXT NOT NULL,
+                amount REAL NOT NULL,
+                FOREIGN KEY (invoice_id) REFERENCES Invoices (invoice_id)
+            );""";
+            
+        String createTransactionsTable = """
+            CREATE TABLE IF NOT EXISTS Transactions (
+                transaction_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                invoice_id INTEGER NOT NULL,
+                student_id TEXT NOT NULL,
+                payment_date TEXT NOT NULL,
+                amount_paid REAL NOT NULL,
+                payment_method TEXT NOT NULL,
+                reference_code TEXT,
+                FOREIGN KEY (invoice_id) REFERENCES Invoices (invoice_id),
+                FOREIGN KEY (student_id) REFERENCES students (student_id)
+            );""";
+            
+        String createFinancialAidTable = """
+            CREATE TABLE IF NOT EXISTS FinancialAid (
+                aid_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                student_id TEXT NOT NULL,
+                semester_id TEXT,
+                aid_type TEXT NOT NULL, 
+                description TEXT,
+                amount REAL NOT NULL,
+                apply_date TEXT NOT NULL,
+                FOREIGN KEY (student_id) REFERENCES students (student_id),
+                FOREIGN KEY (semester_id) REFERENCES semesters (semester_id)
+            );""";
+            
+        String createActivityLogTable = """
+            CREATE TABLE IF NOT EXISTS activity_log (
+                log_id INTEGER PRIMARY KEY AUTOINCREMENT,
+                log_timestamp TEXT NOT NULL,
+                username TEXT NOT NULL,
+                action_description TEXT NOT NULL
+            );""";
+
+        return new String[]{
+            createUserTable,
+            createMajorsTable,
+            createTeachersTable,
+            createClassroomsTable,
+            createStudentsTable,
+            createSemestersTable,
+            createSubjectsTable,
+            createPrerequisitesTable,
+            createEnrollmentsTable,
+            createAssignmentGradesTable,
+            createAssignmentsTable,
+            createLeaveRequestsTable,
+            createInvoicesTable,
+            createInvoiceItemsTable,
+            createTransactionsTable,
+            createFinancialAidTable,
+            createActivityLogTable
+        };
+    }
+}
@@ -0,0 +1,156 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+class BillingRunResult {
+    int created;
+    int alreadyBilled;
+    int chunks;
+    boolean cancelled;
+    long elapsedMillis;
+
+    @Override
+    public String toString() {
+        return String.format("created=%d alreadyBilled=%d chunks=%d cancelled=%s elapsed=%dms",
+                created, alreadyBilled, chunks, cancelled, elapsedMillis);
+    }
+}
+
+/**
+ * Bills every ENROLLED student for a semester in chunked transactions, so the
+ * write lock is released between chunks. Students that already have an invoice
+ * for the semester are skipped, which makes a re-run (or a run resumed after a
+ * failure or cancel) safe.
+ */
+class SemesterBillingRun {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final String SQL_PENDING_STUDENTS =
+            "SELECT s.student_id FROM students s WHERE s.status = 'ENROLLED' " +
+            "AND NOT EXISTS (SELECT 1 FROM Invoices i WHERE i.student_id = s.student_id AND i.semester_id = ?1) " +
+            "ORDER BY s.student_id";
+    private static final String SQL_ENROLLED_COUNT = "SELECT COUNT(*) FROM students WHERE status = 'ENROLLED'";
+
+    // The NOT EXISTS guard also covers a second run racing this one.
+    private static final String SQL_INSERT_INVOICE =
+            "INSERT INTO Invoices(student_id, semester_id, issue_date, due_date, total_amount, status, amount_paid, balance) " +
+            "SELECT ?1, ?2, ?3, ?4, ?5, 'PENDING', 0, ?5 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM Invoices WHERE student_id = ?1 AND semester_id = ?2)";
+
+    // One statement per chunk instead of one insert per invoice; the chunk's invoice ids
+    // are contiguous because the chunk's inserts run under a single write lock.
+    private static final String SQL_INSERT_ITEMS =
+            "INSERT INTO InvoiceItems(invoice_id, description, amount) " +
+            "SELECT invoice_id, ?1, total_amount FROM Invoices " +
+            "WHERE invoice_id BETWEEN ?2 AND ?3 AND semester_id = ?4";
+
+    private final DatabaseManager db;
+    private final int chunkSize;
+
+    SemesterBillingRun(DatabaseManager db) {
+        this(db, DEFAULT_CHUNK_SIZE);
+    }
+
+    SemesterBillingRun(DatabaseManager db, int chunkSize) {
+        this.db = db;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * @param progress receives (studentsProcessed, studentsToBill) after every committed chunk; may be null
+     * @param cancelled checked between chunks; may be null
+     */
+    BillingRunResult run(String semesterId, double baseFee, String issueDate, String dueDate,
+                         BiConsumer<Integer, Integer> progress, BooleanSupplier cancelled) throws SQLException {
+        long start = System.currentTimeMillis();
+        BillingRunResult result = new BillingRunResult();
+        String description = "Base Tuition Fee - Semester " + semesterId;
+
+        try (Connection conn = db.connect()) {
+            List<String> pending = findPendingStudents(conn, semesterId);
+            int enrolled = countEnrolled(conn);
+            result.alreadyBilled = Math.max(0, enrolled - pending.size());
+            if (progress != null) progress.accept(0, pending.size());
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement insInvoice = conn.prepareStatement(SQL_INSERT_INVOICE);
+                 PreparedStatement insItems = conn.prepareStatement(SQL_INSERT_ITEMS);
+                 PreparedStatement lastId = conn.prepareStatement("SELECT last_insert_rowid()")) {
+
+                for (int from = 0; from < pending.size(); from += chunkSize) {
+                    if (cancelled != null && cancelled.getAsBoolean()) {
+                        result.cancelled = true;
+                        break;
+                    }
+                    int to = Math.min(from + chunkSize, pending.size());
+                    try {
+                        for (String studentId : pending.subList(from, to)) {
+                            insInvoice.setString(1, studentId);
+                            insInvoice.setString(2, semesterId);
+                            insInvoice.setString(3, issueDate);
+                            insInvoice.setString(4, dueDate);
+                            insInvoice.setDouble(5, baseFee);
+                            insInvoice.addBatch();
+                        }
+                        int inserted = 0;
+                        for (int n : insInvoice.executeBatch()) {
+                            if (n > 0) inserted += n;
+                        }
+                        if (inserted > 0) {
+                            long last;
+                            try (ResultSet rs = lastId.executeQuery()) {
+                                rs.next();
+                                last = rs.getLong(1);
+                            }
+                            insItems.setString(1, description);
+                            insItems.setLong(2, last - inserted + 1);
+                            insItems.setLong(3, last);
+                            insItems.setString(4, semesterId);
+                            insItems.executeUpdate();
+                        }
+                        conn.commit();
+                        result.created += inserted;
+                        result.chunks++;
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        insInvoice.clearBatch();
+                    }
+                    if (progress != null) progress.accept(to, pending.size());
+                }
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        if (result.created > 0) db.publishChange(EntityType.STUDENT_FINANCE, null, ChangeKind.BULK);
+        result.elapsedMillis = System.currentTimeMillis() - start;
+        return result;
+    }
+
+    private List<String> findPendingStudents(Connection conn, String semesterId) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_PENDING_STUDENTS)) {
+            pstmt.setString(1, semesterId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getString(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private int countEnrolled(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_ENROLLED_COUNT);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
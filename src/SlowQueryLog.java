@@ -0,0 +1,358 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@FunctionalInterface
+interface ConnectionFactory {
+    Connection open() throws SQLException;
+}
+
+class SlowQuery {
+    final long timestamp;
+    final String sql;
+    final String params;
+    final long nanos;
+    final long rows;
+    final String method;
+    final String thread;
+    final boolean failed;
+    String plan;
+
+    SlowQuery(long timestamp, String sql, String params, long nanos, long rows, String method, String thread, boolean failed) {
+        this.timestamp = timestamp;
+        this.sql = sql;
+        this.params = params;
+        this.nanos = nanos;
+        this.rows = rows;
+        this.method = method;
+        this.thread = thread;
+        this.failed = failed;
+    }
+
+    double millis() {
+        return nanos / 1e6;
+    }
+}
+
+/** One statement's slow runs since startup (or the last clear), with the slowest kept whole. */
+class SlowQueryOffender {
+    final String sql;
+    long count;
+    long totalNanos;
+    long lastSeen;
+    SlowQuery slowest;
+
+    SlowQueryOffender(String sql) {
+        this.sql = sql;
+    }
+
+    SlowQueryOffender copy() {
+        SlowQueryOffender c = new SlowQueryOffender(sql);
+        c.count = count;
+        c.totalNanos = totalNanos;
+        c.lastSeen = lastSeen;
+        c.slowest = slowest;
+        return c;
+    }
+}
+
+/**
+ * Statements slower than the threshold, with their bound parameters and the
+ * EXPLAIN QUERY PLAN SQLite chose. Recording only queues the entry; a
+ * background thread runs the EXPLAIN on its own unpooled connection, appends
+ * to a rolling text file and keeps the worst offenders for the admin view.
+ * When the queue is full new entries are dropped (and counted) rather than
+ * slowing the query path further.
+ */
+class SlowQueryLog {
+
+    static final int QUEUE_CAPACITY = 1000;
+    static final int MAX_OFFENDERS = 500;
+    static final int MAX_PARAM_LENGTH = 200;
+    private static final int PLAN_CACHE_SIZE = 200;
+
+    private final long thresholdNanos;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int keepFiles;
+    private final ConnectionFactory connections;
+    private final BlockingQueue<SlowQuery> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // guarded by offenders
+    private final Map<String, SlowQueryOffender> offenders = new HashMap<>();
+
+    // writer thread only
+    private final Map<String, String> plans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > PLAN_CACHE_SIZE;
+        }
+    };
+    private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    private Connection explainConnection;
+    private Thread writer;
+    private volatile boolean stopping = false;
+
+    SlowQueryLog(long thresholdMillis, Path file, long maxFileBytes, int keepFiles, ConnectionFactory connections) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+        this.keepFiles = Math.max(1, keepFiles);
+        this.connections = connections;
+    }
+
+    long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getRecordedCount() {
+        return recorded.get();
+    }
+
+    long getDroppedCount() {
+        return dropped.get();
+    }
+
+    boolean isSlow(long nanos) {
+        return nanos >= thresholdNanos;
+    }
+
+    /** Called on the querying thread; only formats the parameters and queues. */
+    void record(String sql, Object[] params, long nanos, long rows, String method, boolean failed) {
+        SlowQuery q = new SlowQuery(System.currentTimeMillis(), DataLayerMetrics.normalize(sql), formatParams(sql, params),
+                nanos, rows, method, Thread.currentThread().getName(), failed);
+        if (queue.offer(q)) {
+            recorded.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    synchronized void start() {
+        if (writer != null) return;
+        writer = new Thread(this::run, "slow-query-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Writes out whatever is queued (waiting at most timeoutMillis) and closes the EXPLAIN connection. */
+    synchronized void stop(long timeoutMillis) {
+        if (writer == null) return;
+        stopping = true;
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    /** Worst first, by total time spent over the threshold. */
+    List<SlowQueryOffender> worstOffenders() {
+        List<SlowQueryOffender> out = new ArrayList<>();
+        synchronized (offenders) {
+            for (SlowQueryOffender o : offenders.values()) out.add(o.copy());
+        }
+        out.sort(Comparator.comparingLong((SlowQueryOffender o) -> o.totalNanos).reversed());
+        return out;
+    }
+
+    void clearOffenders() {
+        synchronized (offenders) {
+            offenders.clear();
+        }
+    }
+
+    private void run() {
+        try {
+            // polled rather than interrupted: an interrupt would close the log file's channel mid-write
+            while (!stopping) {
+                SlowQuery q;
+                try {
+                    q = queue.poll(250, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (q != null) handle(q);
+            }
+            SlowQuery q;
+            while ((q = queue.poll()) != null) {
+                handle(q);
+            }
+        } finally {
+            closeExplainConnection();
+        }
+    }
+
+    private void handle(SlowQuery q) {
+        q.plan = plans.get(q.sql);
+        if (q.plan == null) {
+            // plans depend on the statement and the schema, hardly ever on the values bound
+            q.plan = explain(q.sql);
+            plans.put(q.sql, q.plan);
+        }
+        remember(q);
+        try {
+            append(q);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void remember(SlowQuery q) {
+        synchronized (offenders) {
+            SlowQueryOffender o = offenders.get(q.sql);
+            if (o == null) {
+                if (offenders.size() >= MAX_OFFENDERS) evictLeastCostly();
+                o = new SlowQueryOffender(q.sql);
+                offenders.put(q.sql, o);
+            }
+            o.count++;
+            o.totalNanos += q.nanos;
+            o.lastSeen = q.timestamp;
+            if (o.slowest == null || q.nanos > o.slowest.nanos) o.slowest = q;
+        }
+    }
+
+    private void evictLeastCostly() {
+        String victim = null;
+        long least = Long.MAX_VALUE;
+        for (SlowQueryOffender o : offenders.values()) {
+            if (o.totalNanos < least) {
+                least = o.totalNanos;
+                victim = o.sql;
+            }
+        }
+        offenders.remove(victim);
+    }
+
+    private String explain(String sql) {
+        String verb = sql.length() < 7 ? sql.toUpperCase(Locale.ROOT) : sql.substring(0, 7).toUpperCase(Locale.ROOT);
+        if (!(verb.startsWith("SELECT") || verb.startsWith("WITH") || verb.startsWith("INSERT") || verb.startsWith("UPDATE")
+                || verb.startsWith("DELETE") || verb.startsWith("REPLACE"))) {
+            return "(no plan for this kind of statement)";
+        }
+        try {
+            if (explainConnection == null || explainConnection.isClosed()) {
+                explainConnection = connections.open();
+            }
+            // EXPLAIN only compiles the statement, so unbound parameters are fine
+            try (PreparedStatement pstmt = explainConnection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                Map<Integer, Integer> depth = new HashMap<>();
+                StringBuilder plan = new StringBuilder();
+                while (rs.next()) {
+                    int id = rs.getInt("id");
+                    int level = depth.getOrDefault(rs.getInt("parent"), -1) + 1;
+                    depth.put(id, level);
+                    if (plan.length() > 0) plan.append('\n');
+                    plan.append("  ".repeat(level)).append(rs.getString("detail"));
+                }
+                return plan.length() == 0 ? "(empty plan)" : plan.toString();
+            }
+        } catch (SQLException e) {
+            closeExplainConnection();
+            return "(EXPLAIN failed: " + e.getMessage() + ")";
+        }
+    }
+
+    private void closeExplainConnection() {
+        if (explainConnection == null) return;
+        try {
+            explainConnection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        explainConnection = null;
+    }
+
+    private void append(SlowQuery q) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(timeFormat.format(new Date(q.timestamp)))
+          .append(String.format(Locale.ROOT, "  %.1f ms  rows=%d  %s  [%s]", q.millis(), q.rows, q.method, q.thread))
+          .append(q.failed ? "  FAILED" : "").append('\n');
+        sb.append("SQL:    ").append(q.sql).append('\n');
+        if (!q.params.isEmpty()) sb.append("Params: ").append(q.params).append('\n');
+        sb.append("Plan:\n");
+        for (String line : q.plan.split("\n")) {
+            sb.append("  ").append(line).append('\n');
+        }
+        sb.append('\n');
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        if (Files.exists(file) && Files.size(file) + bytes.length > maxFileBytes) roll();
+        Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // slow_queries.log -> slow_queries.log.1 -> ... -> slow_queries.log.<keepFiles>, the oldest is dropped
+    private void roll() throws IOException {
+        Files.deleteIfExists(rolled(keepFiles));
+        for (int i = keepFiles - 1; i >= 1; i--) {
+            Path from = rolled(i);
+            if (Files.exists(from)) Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path rolled(int n) {
+        return Paths.get(file.toString() + "." + n);
+    }
+
+    static String formatParams(String sql, Object[] params) {
+        if (params == null || params.length == 0) return "";
+        // never write credentials (or their hashes) to a plain text file
+        if (sql.toLowerCase(Locale.ROOT).contains("password")) return "(" + params.length + " values, redacted)";
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < params.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append('[').append(i + 1).append("] ").append(formatValue(params[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String formatValue(Object value) {
+        if (value == null) return "NULL";
+        if (value instanceof byte[] bytes) return "<" + bytes.length + " bytes>";
+        if (value instanceof Number || value instanceof Boolean) return value.toString();
+        if (value instanceof Date) return "'" + value + "'";
+        if (value instanceof CharSequence) {
+            String s = value.toString();
+            if (s.length() > MAX_PARAM_LENGTH) s = s.substring(0, MAX_PARAM_LENGTH) + "...";
+            return "'" + s.replace("'", "''").replace("\n", "\\n") + "'";
+        }
+        return "<" + value.getClass().getSimpleName() + ">";
+    }
+
+    String describe() {
+        return String.format("threshold %d ms, %d recorded, %d dropped, log %s", getThresholdMillis(), recorded.get(), dropped.get(), file);
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * SQLite storage settings loaded from database.properties (or the file named by
+ * the storage.profile system property). Any key can also be overridden with a
+ * -D system property of the same name.
+ */
+class StorageProfile {
+
+    static final String DEFAULT_PROFILE_FILE = "database.properties";
+
+    private static final Set<String> JOURNAL_MODES = Set.of("DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF");
+    private static final Set<String> SYNCHRONOUS_LEVELS = Set.of("OFF", "NORMAL", "FULL", "EXTRA", "0", "1", "2", "3");
+    private static final Set<String> TEMP_STORES = Set.of("DEFAULT", "FILE", "MEMORY", "0", "1", "2");
+
+    final String source;
+    final String databaseFile;
+    final int poolSize;
+    final long poolCheckoutTimeoutMillis;
+    final String journalMode;
+    final String synchronous;
+    final long mmapSize;
+    final long cacheSize;
+    final String tempStore;
+    final int busyTimeoutMillis;
+    final boolean metricsEnabled;
+    final String metricsExportFile;
+    final long metricsExportIntervalSeconds;
+    final long slowQueryMillis;
+    final String slowQueryFile;
+    final long slowQueryFileMaxBytes;
+    final int slowQueryFiles;
+
+    private StorageProfile(Properties p, String source) {
+        this.source = source;
+        this.databaseFile = p.getProperty("database.file", "university_v7.db").trim();
+        this.poolSize = integer(p, "pool.size", 4);
+        this.poolCheckoutTimeoutMillis = number(p, "pool.checkout_timeout_ms", 10000L);
+        this.journalMode = choice(p, "sqlite.journal_mode", "WAL", JOURNAL_MODES);
+        this.synchronous = choice(p, "sqlite.synchronous", "NORMAL", SYNCHRONOUS_LEVELS);
+        this.mmapSize = number(p, "sqlite.mmap_size", 268435456L);
+        this.cacheSize = number(p, "sqlite.cache_size", -65536L);
+        this.tempStore = choice(p, "sqlite.temp_store", "MEMORY", TEMP_STORES);
+        this.busyTimeoutMillis = integer(p, "sqlite.busy_timeout", 5000);
+        this.metricsEnabled = Boolean.parseBoolean(p.getProperty("metrics.enabled", "true").trim());
+        this.metricsExportFile = p.getProperty("metrics.export_file", "").trim();
+        this.metricsExportIntervalSeconds = number(p, "metrics.export_interval_s", 60L);
+        this.slowQueryMillis = number(p, "metrics.slow_query_ms", 250L);
+        this.slowQueryFile = p.getProperty("metrics.slow_query_file", "slow_queries.log").trim();
+        this.slowQueryFileMaxBytes = number(p, "metrics.slow_query_file_max_kb", 5120L) * 1024;
+        this.slowQueryFiles = integer(p, "metrics.slow_query_files", 3);
+    }
+
+    static StorageProfile load() {
+        Properties props = new Properties();
+        String path = System.getProperty("storage.profile", DEFAULT_PROFILE_FILE);
+        File file = new File(path);
+        String source = "built-in defaults";
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                props.load(in);
+                source = file.getPath();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("sqlite.") || key.startsWith("pool.") || key.startsWith("metrics.") || key.equals("database.file")) {
+                props.setProperty(key, System.getProperty(key));
+            }
+        }
+        return new StorageProfile(props, source);
+    }
+
+    String jdbcUrl() {
+        return "jdbc:sqlite:" + databaseFile;
+    }
+
+    void apply(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+                // journal_mode answers with the mode actually in effect, e.g. WAL is refused on some network drives
+                String actual = rs.next() ? rs.getString(1) : null;
+                if (actual != null && !actual.equalsIgnoreCase(journalMode)) {
+                    System.err.println("SQLite kept journal_mode=" + actual.toUpperCase() + " instead of " + journalMode + " for " + databaseFile);
+                }
+            }
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    String describe() {
+        return String.format("file=%s journal_mode=%s synchronous=%s mmap_size=%d cache_size=%d temp_store=%s busy_timeout=%dms pool.size=%d metrics=%s slow_query=%s (from %s)",
+                databaseFile, journalMode, synchronous, mmapSize, cacheSize, tempStore, busyTimeoutMillis, poolSize,
+                !metricsEnabled ? "off" : metricsExportFile.isEmpty() ? "on" : metricsExportFile,
+                slowQueryLogEnabled() ? slowQueryMillis + "ms" : "off", source);
+    }
+
+    // the slow query log sits on the metrics instrumentation, so it needs both
+    boolean slowQueryLogEnabled() {
+        return metricsEnabled && slowQueryMillis > 0;
+    }
+
+    private static String choice(Properties p, String key, String def, Set<String> allowed) {
+        String value = p.getProperty(key, def).trim().toUpperCase();
+        if (!allowed.contains(value)) {
+            System.err.println("Ignoring invalid " + key + "=" + value + ", using " + def);
+            return def;
+        }
+        return value;
+    }
+
+    private static long number(Properties p, String key, long def) {
+        String value = p.getProperty(key, String.valueOf(def)).trim();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid " + key + "=" + value + ", using " + def);
+            return def;
+        }
+    }
+
+    private static int integer(Properties p, String key, int def) {
+        String value = p.getProperty(key, String.valueOf(def)).trim();
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring invalid " + key + "=" + value + ", using " + def);
+            return def;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * In-memory count of rows in students. DAO methods adjust it as they commit so
+ * the UI sees changes immediately; a background thread polls PRAGMA data_version
+ * on its own connection and recounts only when some connection has committed
+ * since the last check (or after a local adjustment, to correct any race with a
+ * recount that already saw the change).
+ */
+class StudentCountTracker {
+
+    static final long POLL_INTERVAL_MILLIS = 2000;
+
+    private final ConnectionPool pool;
+    private final AtomicInteger count = new AtomicInteger(-1);
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private final CopyOnWriteArrayList<IntConsumer> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private ScheduledExecutorService poller;
+    // only touched from the poller thread
+    private Connection watchConn;
+    private long lastDataVersion = -1;
+
+    StudentCountTracker(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    void start() {
+        if (!started.compareAndSet(false, true)) return;
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "student-count-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        poller.scheduleWithFixedDelay(this::reconcile, 0, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void stop() {
+        if (poller == null) return;
+        poller.shutdownNow();
+        try {
+            poller.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeWatchConnection();
+    }
+
+    /** Current count, or -1 until the first reconciliation has run. */
+    int get() {
+        return count.get();
+    }
+
+    void adjust(int delta) {
+        if (delta == 0) return;
+        dirty.set(true);
+        int current;
+        int next;
+        do {
+            current = count.get();
+            if (current < 0) return; // not loaded yet; the first recount will include this change
+            next = Math.max(0, current + delta);
+        } while (!count.compareAndSet(current, next));
+        fire(next);
+    }
+
+    /** Listeners are called from whichever thread changed the count. */
+    void addListener(IntConsumer listener) {
+        listeners.add(listener);
+        int current = count.get();
+        if (current >= 0) listener.accept(current);
+    }
+
+    void removeListener(IntConsumer listener) {
+        listeners.remove(listener);
+    }
+
+    private void reconcile() {
+        try {
+            if (watchConn == null || watchConn.isClosed()) {
+                watchConn = pool.openPhysicalConnection();
+                lastDataVersion = -1;
+            }
+            try (Statement stmt = watchConn.createStatement()) {
+                long version;
+                try (ResultSet rs = stmt.executeQuery("PRAGMA data_version")) {
+                    version = rs.next() ? rs.getLong(1) : -1;
+                }
+                boolean changed = version != lastDataVersion;
+                if (!changed && !dirty.get()) return;
+                lastDataVersion = version;
+                dirty.set(false);
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM students")) {
+                    int actual = rs.next() ? rs.getInt(1) : 0;
+                    if (count.getAndSet(actual) != actual) {
+                        fire(actual);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            closeWatchConnection();
+        }
+    }
+
+    private void closeWatchConnection() {
+        if (watchConn == null) return;
+        try {
+            watchConn.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        watchConn = null;
+    }
+
+    private void fire(int value) {
+        for (IntConsumer listener : listeners) {
+            listener.accept(value);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+
+class ImportError {
+    final long line;
+    final String message;
+    final String raw;
+
+    ImportError(long line, String message, String raw) {
+        this.line = line;
+        this.message = message;
+        this.raw = raw;
+    }
+}
+
+class ImportReport {
+    static final int MAX_ERRORS_KEPT = 5000;
+
+    long rowsRead, inserted, duplicates, invalid;
+    boolean cancelled;
+    long elapsedMillis;
+    final List<ImportError> errors = new ArrayList<>();
+
+    void addError(long line, String message, String raw) {
+        if (errors.size() < MAX_ERRORS_KEPT) {
+            errors.add(new ImportError(line, message, raw));
+        }
+    }
+
+    boolean hasErrors() {
+        return invalid > 0 || duplicates > 0;
+    }
+
+    void writeErrorReport(File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("line,message,row");
+            for (ImportError e : errors) {
+                out.println(e.line + "," + csv(e.message) + "," + csv(e.raw));
+            }
+            long omitted = invalid + duplicates - errors.size();
+            if (omitted > 0) {
+                out.println("# " + omitted + " more rows not listed");
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d inserted=%d duplicates=%d invalid=%d cancelled=%s elapsed=%dms",
+                rowsRead, inserted, duplicates, invalid, cancelled, elapsedMillis);
+    }
+}
+
+/**
+ * Streams a txt/csv/xml student file into the students table. Rows are validated
+ * as they are read and written with INSERT OR IGNORE in batches, one transaction
+ * per batch; rows whose student_id already exists (in the table or earlier in the
+ * file) are skipped and listed in the report.
+ */
+class StudentImportJob {
+
+    static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final String SQL_INSERT = DatabaseManager.INSERT_STUDENT_SQL.replaceFirst("^INSERT INTO", "INSERT OR IGNORE INTO");
+
+    private final DatabaseManager db;
+    private final DataManager dataManager;
+    private final int batchSize;
+
+    StudentImportJob(DatabaseManager db, DataManager dataManager) {
+        this(db, dataManager, DEFAULT_BATCH_SIZE);
+    }
+
+    StudentImportJob(DatabaseManager db, DataManager dataManager, int batchSize) {
+        this.db = db;
+        this.dataManager = dataManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @param progress receives (bytesRead, fileSize) after every committed batch; may be null
+     * @param cancelled checked before each row; batches already committed are kept
+     */
+    ImportReport run(File file, BiConsumer<Long, Long> progress, BooleanSupplier cancelled) throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        String name = file.getName();
+        String type = name.substring(name.lastIndexOf('.') + 1);
+        long fileSize = file.length();
+        ImportReport report = new ImportReport();
+
+        try (CountingInputStream in = new CountingInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+             Connection conn = db.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERT)) {
+                List<Student> pending = new ArrayList<>(batchSize);
+                List<Long> pendingLines = new ArrayList<>(batchSize);
+
+                Runnable reportProgress = () -> {
+                    if (progress != null) progress.accept(in.count, fileSize);
+                };
+
+                dataManager.stream(in, type, new StudentRecordVisitor() {
+                    @Override
+                    public boolean student(long line, Student s) throws SQLException {
+                        if (cancelled != null && cancelled.getAsBoolean()) {
+                            report.cancelled = true;
+                            return false;
+                        }
+                        report.rowsRead++;
+                        String problem = validate(s);
+                        if (problem != null) {
+                            report.invalid++;
+                            report.addError(line, problem, s.id + "," + s.name);
+                            return true;
+                        }
+                        DatabaseManager.bindStudentInsert(pstmt, s);
+                        pstmt.addBatch();
+                        pending.add(s);
+                        pendingLines.add(line);
+                        if (pending.size() >= batchSize) {
+                            flush(conn, pstmt, pending, pendingLines, report);
+                            reportProgress.run();
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public void invalid(long line, String raw, String reason) {
+                        report.rowsRead++;
+                        report.invalid++;
+                        report.addError(line, reason, raw);
+                    }
+                });
+                flush(conn, pstmt, pending, pendingLines, report);
+                reportProgress.run();
+            } catch (SQLException | IOException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } finally {
+            if (report.inserted > 0) {
+                db.noteStudentsInserted((int) report.inserted);
+                db.publishChange(EntityType.STUDENT, null, ChangeKind.BULK);
+                db.publishChange(EntityType.STUDENT_FINANCE, null, ChangeKind.BULK);
+            }
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private void flush(Connection conn, PreparedStatement pstmt, List<Student> pending, List<Long> lines, ImportReport report) throws SQLException {
+        if (pending.isEmpty()) return;
+        int[] counts = pstmt.executeBatch();
+        conn.commit();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                report.inserted++;
+            } else {
+                report.duplicates++;
+                Student s = pending.get(i);
+                report.addError(lines.get(i), "Skipped: student ID already exists", s.id + "," + s.name);
+            }
+        }
+        pstmt.clearBatch();
+        pending.clear();
+        lines.clear();
+    }
+
+    static String validate(Student s) {
+        if (s.id == null || s.id.isBlank() || s.id.equals("N/A")) return "Missing student ID";
+        if (s.name == null || s.name.isBlank()) return "Missing name";
+        if (s.age < 0 || s.age > 150) return "Age out of range: " + s.age;
+        if (s.gpa < 0.0 || s.gpa > 4.0) return "GPA out of range: " + s.gpa;
+        if (s.year < 1) return "Invalid year: " + s.year;
+        return null;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        volatile long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
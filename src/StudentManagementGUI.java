@@ -1,27 +1,31 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 import javax.swing.*;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
-import javax.swing.table.TableRowSorter;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
 
 public class StudentManagementGUI extends JFrame {
 
     private static final String[] MAJOR_OPTIONS = {"Computer Science", "Business", "Arts", "Engineering", "Medicine", "Other"};
     private static final String[] YEAR_OPTIONS = {"1", "2", "3", "4", "5+"};
     private static final String[] STATUS_OPTIONS = {"ENROLLED", "GRADUATED", "ON_LEAVE", "DROPPED"};
+    // quiet period after the last keystroke before the student list is re-filtered
+    private static final int SEARCH_DEBOUNCE_MILLIS = 200;
 
     DatabaseManager dbManager;
+    private AsyncDao dao;
     private DataManager dataManager;
 
     Role currentUserRole;
@@ -33,12 +37,18 @@ public class StudentManagementGUI extends JFrame {
     private JComboBox<Classroom> classroomFilterComboBox;
     private ArrayList<Classroom> allClassroomsList = new ArrayList<>();
     private JLabel statusLabel;
+    private Timer statusTimer;
+    private Timer searchTimer;
+    private IntConsumer studentCountListener;
+    private DataChangeListener changeListener;
+    private volatile int studentCount = -1;
     
     private JMenuItem importItem;
 
-    DefaultTableModel model;
+    StudentTableModel model;
+    private StudentSearchIndex searchIndex;
+    private AnalyticsService analytics;
     JTable table;
-    TableRowSorter<DefaultTableModel> sorter;
     
     DefaultTableModel courseModel;
     JTable courseTable;
@@ -54,7 +64,14 @@ public class StudentManagementGUI extends JFrame {
     DefaultTableModel userModel;
     JTable userTable;
     DefaultTableModel logModel;
+    private JLabel auditStatsLabel;
     JTable logTable;
+    private DefaultTableModel diagnosticsModel;
+    private JComboBox<String> diagnosticsView;
+    private JLabel diagnosticsLabel;
+    private DefaultTableModel slowQueryModel;
+    private List<SlowQueryOffender> slowQueryOffenders = new ArrayList<>();
+    private JLabel slowQueryLabel;
     DefaultTableModel classroomModel;
     JTable classroomTable;
     
@@ -65,6 +82,9 @@ public class StudentManagementGUI extends JFrame {
         this.currentUserRole = role;
         this.currentUsername = username; 
         dbManager = new DatabaseManager();
+        dao = new AsyncDao(dbManager);
+        analytics = new AnalyticsService(dbManager);
+        analytics.start();
         dataManager = new DataManager(); 
 
         setTitle("🎓 Student Management System (User: " + this.currentUsername + " | Role: " + role.name() + ")");
@@ -101,13 +121,28 @@ public class StudentManagementGUI extends JFrame {
 
         add(mainHeaderPanel, BorderLayout.NORTH);
     
-        model = new DefaultTableModel(new Object[]{"ID", "Name", "Major", "Year", "Classroom", "Status", "GPA", "Email", "Phone", "Date Added", "Homeroom Teacher"}, 0);
+        searchIndex = new StudentSearchIndex(dbManager);
+        searchIndex.start();
+        model = new StudentTableModel(dbManager, searchIndex);
         table = new JTable(model);
         table.setRowHeight(28);
         table.getTableHeader().setFont(new Font("SansSerif", Font.BOLD, 14));
-        table.setAutoCreateRowSorter(true);
-        sorter = new TableRowSorter<>(model);
-        table.setRowSorter(sorter);
+        // sorting is done by SQL in the model, so there is no RowSorter on this table
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.columnAtPoint(e.getPoint());
+                if (column < 0) return;
+                model.toggleSort(table.convertColumnIndexToModel(column));
+                // the header paints each TableColumn's own headerValue, captured when the columns were built
+                TableColumnModel columns = table.getColumnModel();
+                for (int i = 0; i < columns.getColumnCount(); i++) {
+                    TableColumn c = columns.getColumn(i);
+                    c.setHeaderValue(model.getColumnName(c.getModelIndex()));
+                }
+                table.getTableHeader().repaint();
+            }
+        });
         
         setupTabs();
         refreshAllClassroomsList();
@@ -116,14 +151,25 @@ public class StudentManagementGUI extends JFrame {
         refreshLeaveTable(); 
         refreshFinanceTable();
         setupContextMenu(); 
+
+        // tables follow committed writes row by row instead of reloading after every action
+        changeListener = DataChangeBus.onEdt(this::onDataChange);
+        dbManager.subscribe(changeListener);
         
         yearFilterComboBox.addActionListener(e -> filterTable());
         classroomFilterComboBox.addActionListener(e -> filterTable());
         
+        searchTimer = new Timer(SEARCH_DEBOUNCE_MILLIS, e -> filterTable());
+        searchTimer.setRepeats(false);
         searchField.getDocument().addDocumentListener(new DocumentListener() {
-            public void changedUpdate(DocumentEvent e) { filterTable(); }
-            public void removeUpdate(DocumentEvent e) { filterTable(); }
-            public void insertUpdate(DocumentEvent e) { filterTable(); }
+            public void changedUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void removeUpdate(DocumentEvent e) { searchTimer.restart(); }
+            public void insertUpdate(DocumentEvent e) { searchTimer.restart(); }
+        });
+        // Enter skips the wait
+        searchField.addActionListener(e -> {
+            searchTimer.stop();
+            filterTable();
         });
         
         updatePermissions();
@@ -131,7 +177,11 @@ public class StudentManagementGUI extends JFrame {
     }
 
     private void refreshAllClassroomsList() {
-        allClassroomsList = dbManager.getAllClassrooms();
+        dao.load(this, classroomFilterComboBox, DatabaseManager::getAllClassrooms, this::fillClassroomFilter);
+    }
+
+    private void fillClassroomFilter(ArrayList<Classroom> classrooms) {
+        allClassroomsList = classrooms;
         
         Object selected = classroomFilterComboBox.getSelectedItem();
         
@@ -314,13 +364,34 @@ public class StudentManagementGUI extends JFrame {
         statusPanel.setBorder(BorderFactory.createEtchedBorder());
         statusLabel = new JLabel("Ready.");
         statusPanel.add(statusLabel, BorderLayout.WEST);
-        Timer timer = new Timer(1000, e -> {
-            statusLabel.setText("Total: " + dbManager.getStudentCount() + " students | " + new SimpleDateFormat("HH:mm:ss").format(new Date()));
-        });
-        timer.start();
+        // The count comes from the in-memory tracker; the timer only drives the clock.
+        studentCountListener = count -> {
+            studentCount = count;
+            SwingUtilities.invokeLater(this::updateStatusBar);
+        };
+        dbManager.addStudentCountListener(studentCountListener);
+        statusTimer = new Timer(1000, e -> updateStatusBar());
+        statusTimer.start();
         return statusPanel;
     }
 
+    private void updateStatusBar() {
+        String total = studentCount < 0 ? "…" : String.valueOf(studentCount);
+        statusLabel.setText("Total: " + total + " students | " + new SimpleDateFormat("HH:mm:ss").format(new Date()));
+    }
+
+    @Override
+    public void dispose() {
+        if (statusTimer != null) statusTimer.stop();
+        if (searchTimer != null) searchTimer.stop();
+        if (studentCountListener != null) dbManager.removeStudentCountListener(studentCountListener);
+        if (changeListener != null) dbManager.unsubscribe(changeListener);
+        if (model != null) model.dispose();
+        if (searchIndex != null) searchIndex.dispose();
+        if (analytics != null) analytics.dispose();
+        super.dispose();
+    }
+
     private void setupTabs() 
     {
         tabbedPane = new JTabbedPane();
@@ -365,6 +436,8 @@ public class StudentManagementGUI extends JFrame {
             if (title.equals("🛡️ Security & Admin")) {
                 refreshUserTable();
                 refreshLogTable();
+                refreshDiagnostics();
+                refreshSlowQueries();
             }
         });
     }
@@ -382,48 +455,48 @@ public class StudentManagementGUI extends JFrame {
                 return; 
             }
             
-            boolean success = dbManager.createStudentWithLogin(newStudent, tempPassword);
-            if (success) {
-                dbManager.logActivity(currentUsername, "Created student: " + newStudent.id);
-                JOptionPane.showMessageDialog(this, "Student " + newStudent.name + " and login account created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshTable(); 
-                checkLowGpaWarning(newStudent.gpa);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create student (ID may already exist or DB error).", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.createStudentWithLogin(newStudent, tempPassword), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Created student: " + newStudent.id);
+                    JOptionPane.showMessageDialog(this, "Student " + newStudent.name + " and login account created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    checkLowGpaWarning(newStudent.gpa);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create student (ID may already exist or DB error).", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
     public void editStudent() {
         int viewRow = table.getSelectedRow();
         if (viewRow < 0) { JOptionPane.showMessageDialog(this, "Select a student to edit."); return; }
-        int modelRow = table.convertRowIndexToModel(viewRow);
-        String studentId = (String) model.getValueAt(modelRow, 0);
-        Student studentToEdit = dbManager.getStudentById(studentId);
+        StudentDisplayRecord selected = model.getRecordAt(table.convertRowIndexToModel(viewRow));
+        if (selected == null) return;
+        Student studentToEdit = dbManager.getStudentById(selected.id);
         if (studentToEdit == null) { JOptionPane.showMessageDialog(this, "Could not find student data in DB."); return; }
         
         StudentDialog dialog = new StudentDialog(this, "Edit Student", MAJOR_OPTIONS, YEAR_OPTIONS, STATUS_OPTIONS, studentToEdit, this.allClassroomsList);
         dialog.setVisible(true);
         Student editedStudent = dialog.getStudent();
         if (editedStudent != null) {
-            dbManager.updateStudent(editedStudent);
-            dbManager.logActivity(currentUsername, "Edited student: " + editedStudent.id);
-            refreshTable();
-            checkLowGpaWarning(editedStudent.gpa);
+            dao.submit(this, db -> db.updateStudent(editedStudent), ok -> {
+                dbManager.logActivity(currentUsername, "Edited student: " + editedStudent.id);
+                checkLowGpaWarning(editedStudent.gpa);
+            });
         }
     }
 
     private void deleteStudent() {
         int viewRow = table.getSelectedRow();
         if (viewRow >= 0) {
-            int modelRow = table.convertRowIndexToModel(viewRow);
-            String studentId = (String) model.getValueAt(modelRow, 0);
-            String name = (String) model.getValueAt(modelRow, 1);
+            StudentDisplayRecord selected = model.getRecordAt(table.convertRowIndexToModel(viewRow));
+            if (selected == null) return;
+            String studentId = selected.id;
+            String name = selected.name;
             int confirm = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete " + name + "?", "Confirm Deletion", JOptionPane.YES_NO_OPTION);
             if (confirm == JOptionPane.YES_OPTION) {
-                dbManager.deleteStudent(studentId);
-                dbManager.logActivity(currentUsername, "Deleted student: " + studentId);
-                refreshTable();
+                dao.submit(this, db -> db.deleteStudent(studentId),
+                        ok -> dbManager.logActivity(currentUsername, "Deleted student: " + studentId));
             }
         } else { JOptionPane.showMessageDialog(this, "Select a student to delete."); }
     }
@@ -439,16 +512,20 @@ public class StudentManagementGUI extends JFrame {
                 JOptionPane.showMessageDialog(this, "Password cannot be empty. Teacher creation cancelled.", "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-            boolean userCreated = dbManager.createUser(newTeacher.id, tempPassword, Role.TEACHER);
-            if (!userCreated) {
-                JOptionPane.showMessageDialog(this, "Failed to create login user (perhaps username " 
-                                            + newTeacher.id + " already exists?).", "Error", JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-            dbManager.addTeacher(newTeacher);
-            dbManager.logActivity(currentUsername, "Created teacher: " + newTeacher.id);
-            JOptionPane.showMessageDialog(this, "Teacher " + newTeacher.name + " and login account created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-            refreshAllClassroomsList();
+            dao.submit(this, db -> {
+                if (!db.createUser(newTeacher.id, tempPassword, Role.TEACHER)) return false;
+                db.addTeacher(newTeacher);
+                return true;
+            }, userCreated -> {
+                if (!userCreated) {
+                    JOptionPane.showMessageDialog(this, "Failed to create login user (perhaps username " 
+                                                + newTeacher.id + " already exists?).", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                dbManager.logActivity(currentUsername, "Created teacher: " + newTeacher.id);
+                JOptionPane.showMessageDialog(this, "Teacher " + newTeacher.name + " and login account created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                refreshAllClassroomsList();
+            });
         }
     }
     
@@ -463,14 +540,14 @@ public class StudentManagementGUI extends JFrame {
         CourseData newCourseData = dialog.getCourseData();
 
         if (newCourseData != null) {
-            boolean success = dbManager.addCourse(newCourseData);
-        if (success) {
-                dbManager.logActivity(currentUsername, "Created course: " + newCourseData.id);
-                JOptionPane.showMessageDialog(this, "Course " + newCourseData.name + " created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshCourseTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create course. Check if ID already exists.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.addCourse(newCourseData), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Created course: " + newCourseData.id);
+                    JOptionPane.showMessageDialog(this, "Course " + newCourseData.name + " created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create course. Check if ID already exists.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -539,13 +616,14 @@ public class StudentManagementGUI extends JFrame {
                 
                 CourseData updatedData = new CourseData(subjectId, name, credits, majorId, semesterId, teacherId, room, day, time);
                 
-                if (dbManager.updateCourse(updatedData)) {
-                    dbManager.logActivity(currentUsername, "Edited course: " + subjectId);
-                    JOptionPane.showMessageDialog(this, "Course updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    refreshCourseTable();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to update course.", "Database Error", JOptionPane.ERROR_MESSAGE);
-                }
+                dao.submit(this, db -> db.updateCourse(updatedData), success -> {
+                    if (success) {
+                        dbManager.logActivity(currentUsername, "Edited course: " + subjectId);
+                        JOptionPane.showMessageDialog(this, "Course updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to update course.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid number for Credits.", "Input Error", JOptionPane.ERROR_MESSAGE);
             } catch (Exception ex) {
@@ -570,8 +648,11 @@ public class StudentManagementGUI extends JFrame {
         if (prereqsStr != null && !prereqsStr.isEmpty() && !prereqsStr.equals("N/A")) {
             currentPrereqIds.addAll(List.of(prereqsStr.split(",")));
         }
-        ArrayList<Subject> allSubjects = dbManager.getAllSubjects();
-        
+        dao.load(this, null, db -> db.getAllSubjects(),
+                allSubjects -> choosePrerequisites(mainSubjectId, mainSubjectName, currentPrereqIds, allSubjects));
+    }
+
+    private void choosePrerequisites(String mainSubjectId, String mainSubjectName, List<String> currentPrereqIds, List<Subject> allSubjects) {
         DefaultListModel<Subject> listModel = new DefaultListModel<>();
         List<Subject> availableSubjects = new ArrayList<>();
         for (Subject s : allSubjects) {
@@ -613,13 +694,14 @@ public class StudentManagementGUI extends JFrame {
                 selectedSubjectIds.add(s.id);
             }
             
-            if (dbManager.setPrerequisites(mainSubjectId, selectedSubjectIds)) {
-                dbManager.logActivity(currentUsername, "Set prerequisites for " + mainSubjectId + " to: " + String.join(",", selectedSubjectIds));
-                JOptionPane.showMessageDialog(this, "Prerequisites updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshCourseTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update prerequisites.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.setPrerequisites(mainSubjectId, selectedSubjectIds), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Set prerequisites for " + mainSubjectId + " to: " + String.join(",", selectedSubjectIds));
+                    JOptionPane.showMessageDialog(this, "Prerequisites updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update prerequisites.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -632,14 +714,14 @@ public void addClassroom() {
         
         Classroom newClassroom = dialog.getClassroom();
         if (newClassroom != null) {
-            if (dbManager.addClassroom(newClassroom.id, newClassroom.name, newClassroom.teacherId, newClassroom.majorId, newClassroom.type)) {
-                JOptionPane.showMessageDialog(this, "Classroom created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dbManager.logActivity(currentUsername, "Created classroom: " + newClassroom.id);
-                refreshClassroomTable();
-                refreshAllClassroomsList();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to create classroom (ID might already exist).", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.addClassroom(newClassroom.id, newClassroom.name, newClassroom.teacherId, newClassroom.majorId, newClassroom.type), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Classroom created successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dbManager.logActivity(currentUsername, "Created classroom: " + newClassroom.id);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to create classroom (ID might already exist).", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -666,15 +748,14 @@ public void addClassroom() {
 
         Classroom editedClassroom = dialog.getClassroom();
         if (editedClassroom != null) {
-            if (dbManager.updateClassroom(editedClassroom.id, editedClassroom.name, editedClassroom.teacherId, editedClassroom.majorId, editedClassroom.type)) {
-                JOptionPane.showMessageDialog(this, "Classroom updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dbManager.logActivity(currentUsername, "Edited classroom: " + editedClassroom.id);
-                refreshClassroomTable();
-                refreshAllClassroomsList(); 
-                refreshTable(); 
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update classroom.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.updateClassroom(editedClassroom.id, editedClassroom.name, editedClassroom.teacherId, editedClassroom.majorId, editedClassroom.type), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Classroom updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dbManager.logActivity(currentUsername, "Edited classroom: " + editedClassroom.id);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update classroom.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -693,15 +774,14 @@ public void addClassroom() {
             "Confirm Deletion", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            if (dbManager.deleteClassroom(classroomId)) {
-                JOptionPane.showMessageDialog(this, "Classroom deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                dbManager.logActivity(currentUsername, "Deleted classroom: " + classroomId);
-                refreshClassroomTable();
-                refreshAllClassroomsList();
-                refreshTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete classroom.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.deleteClassroom(classroomId), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Classroom deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    dbManager.logActivity(currentUsername, "Deleted classroom: " + classroomId);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete classroom.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
     
@@ -727,14 +807,14 @@ public void addClassroom() {
             JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = dbManager.updateLeaveRequestStatus(leaveId, status);
-            if (success) {
-            dbManager.logActivity(currentUsername, "Updated leave request #" + leaveId + " to " + status);
-            JOptionPane.showMessageDialog(this, "Request " + status.toLowerCase() + " successfully.");
-                refreshLeaveTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update status.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.updateLeaveRequestStatus(leaveId, status), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Updated leave request #" + leaveId + " to " + status);
+                    JOptionPane.showMessageDialog(this, "Request " + status.toLowerCase() + " successfully.");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update status.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -757,19 +837,45 @@ public void addClassroom() {
         String issueDate = dialog.getIssueDate();
         String dueDate = dialog.getDueDate();
         
-        try {
-        int count = dbManager.generateInvoicesForSemester(selectedSemester.id, baseFee, issueDate, dueDate);
-        if (count >= 0) {
-            dbManager.logActivity(currentUsername, "Generated " + count + " invoices for semester " + selectedSemester.id);
-            JOptionPane.showMessageDialog(this, "Successfully generated " + count + " invoices.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshFinanceTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "An error occurred while generating invoices.", "Database Error", JOptionPane.ERROR_MESSAGE);
+        ProgressMonitor monitor = new ProgressMonitor(this, "Generating invoices for semester " + selectedSemester.id, "Preparing...", 0, 100);
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+
+        SwingWorker<BillingRunResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected BillingRunResult doInBackground() throws Exception {
+                return new SemesterBillingRun(dbManager).run(selectedSemester.id, baseFee, issueDate, dueDate,
+                        (done, total) -> SwingUtilities.invokeLater(() -> {
+                            monitor.setNote(done + " / " + total + " students");
+                            monitor.setProgress(total == 0 ? 100 : done * 100 / total);
+                        }),
+                        monitor::isCanceled);
             }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            e.printStackTrace();
-        }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    BillingRunResult result = get();
+                    dbManager.logActivity(currentUsername, "Generated " + result.created + " invoices for semester " + selectedSemester.id
+                            + (result.cancelled ? " (cancelled)" : ""));
+                    String message = "Generated " + result.created + " invoices.";
+                    if (result.alreadyBilled > 0) {
+                        message += "\n" + result.alreadyBilled + " students were already billed for this semester and were skipped.";
+                    }
+                    if (result.cancelled) {
+                        message += "\nThe run was cancelled; run it again to bill the remaining students.";
+                    }
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, message, "Invoices Generated", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this,
+                            "An error occurred while generating invoices. Invoices already committed are kept; run it again to finish.\n" + e.getMessage(),
+                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
     }
     
     public void addPayment() {
@@ -809,15 +915,15 @@ public void addClassroom() {
                 paymentMethod,
                 referenceCode
             );
-            boolean success = dbManager.addPayment(newTx);
+            dao.submit(this, db -> db.addPayment(newTx), success -> {
                 if (success) {
                     dbManager.logActivity(currentUsername, "Added payment of " + amountPaid + " for student " + studentId);
                     JOptionPane.showMessageDialog(this, "Payment of " + amountPaid + " added successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                    refreshFinanceTable();
                     updateFinanceDetailView(studentId, studentName);
                 } else {
                     JOptionPane.showMessageDialog(this, "Failed to add payment.", "Database Error", JOptionPane.ERROR_MESSAGE);
                 }
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
@@ -857,16 +963,15 @@ public void addClassroom() {
                 dialog.getAmount()
             );
 
-            boolean success = dbManager.addFinancialAid(aid);
-
-            if (success) {
-                dbManager.logActivity(currentUsername, "Added financial aid (" + aid.aidType + ") of " + aid.amount + " for student " + studentId);
-                JOptionPane.showMessageDialog(this, "Financial aid (" + aid.amount + ") applied successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshFinanceTable();
-                updateFinanceDetailView(studentId, studentName);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to apply financial aid.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.addFinancialAid(aid), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Added financial aid (" + aid.aidType + ") of " + aid.amount + " for student " + studentId);
+                    JOptionPane.showMessageDialog(this, "Financial aid (" + aid.amount + ") applied successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    updateFinanceDetailView(studentId, studentName);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to apply financial aid.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
@@ -909,43 +1014,65 @@ public void addClassroom() {
     }
 
     public JPanel createOverviewPanel() {
-        List<Student> students = dbManager.getAllStudents();
         JPanel panel = new JPanel(new GridLayout(1, 3, 10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        panel.add(createCard("👩‍🎓 Total Students", String.valueOf(students.size())));
-        
-        double avgGpa = students.stream().mapToDouble(s -> s.gpa).average().orElse(0);
-        panel.add(createCard("📈 Average GPA", String.format("%.2f", avgGpa)));
-        
-        long lowGpaCount = students.stream().filter(s -> s.gpa < 2.0).count();
-        panel.add(createCard("⚠️ Low GPA (<2.0)", String.valueOf(lowGpaCount)));
-        
+        fillOverviewPanel(panel, null);
+        withAnalytics(snapshot -> fillOverviewPanel(panel, snapshot.gpa));
         return panel;
     }
 
+    private void fillOverviewPanel(JPanel panel, GpaSummary gpa) {
+        panel.removeAll();
+        panel.add(createCard("👩‍🎓 Total Students", gpa == null ? "…" : String.valueOf(gpa.totalStudents)));
+        panel.add(createCard("📈 Average GPA", gpa == null ? "…" : String.format("%.2f", gpa.averageGpa)));
+        panel.add(createCard("⚠️ Low GPA (<2.0)", gpa == null ? "…" : String.valueOf(gpa.lowGpaCount)));
+        panel.revalidate();
+        panel.repaint();
+    }
+
     public JScrollPane createTextReportPanel() {
-        JTextArea reportArea = new JTextArea();
+        JTextArea reportArea = new JTextArea("Loading reports...");
         reportArea.setEditable(false);
         reportArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
-        
+        withAnalytics(snapshot -> {
+            reportArea.setText(buildTextReport(snapshot));
+            reportArea.setCaretPosition(0);
+        });
+        return new JScrollPane(reportArea);
+    }
+
+    // Runs onEdt right away when the cached snapshot is still valid, so reopening the dashboard does not flicker.
+    private void withAnalytics(Consumer<AnalyticsSnapshot> onEdt) {
+        CompletableFuture<AnalyticsSnapshot> snapshot = analytics.snapshot();
+        if (snapshot.isDone() && !snapshot.isCompletedExceptionally()) {
+            onEdt.accept(snapshot.join());
+            return;
+        }
+        snapshot.whenCompleteAsync((value, error) -> {
+            if (error != null) {
+                error.printStackTrace();
+            } else {
+                onEdt.accept(value);
+            }
+        }, AsyncDao.EDT);
+    }
+
+    private static String buildTextReport(AnalyticsSnapshot snapshot) {
         StringBuilder sb = new StringBuilder();
         
         sb.append("--- ACADEMIC REPORTS ---\n");
         sb.append("\n[ Student Count per Major ]\n");
 
-        ArrayList<DataPoint> majorCounts = dbManager.getStudentCountPerMajor();
-        for (DataPoint dp : majorCounts) {
+        for (DataPoint dp : snapshot.majorCounts) {
             sb.append(String.format("  %-20s : %d students\n", dp.label, dp.count));
         }
 
         sb.append("\n[ Student Status & Graduation Rate ]\n");
-        ArrayList<DataPoint> statusCounts = dbManager.getStudentStatusCount();
         int total = 0;
         int graduated = 0;
-        for (DataPoint dp : statusCounts) {
+        for (DataPoint dp : snapshot.statusCounts) {
             sb.append(String.format("  %-20s : %d students\n", dp.label, dp.count));
-            if (dp.label.equals("GRADUATED")) {
+            if ("GRADUATED".equals(dp.label)) {
                 graduated = dp.count;
             }
             total += dp.count;
@@ -955,25 +1082,23 @@ public void addClassroom() {
         sb.append(String.format("  Graduation Rate: %.2f%%\n", gradRate));
 
         sb.append("\n[ Top 5 Most Failed Courses (Grade 'F') ]\n");
-        ArrayList<DataPoint> failedCourses = dbManager.getMostFailedCourses();
-        if (failedCourses.isEmpty()) {
+        if (snapshot.failedCourses.isEmpty()) {
             sb.append("  No 'F' grades found.\n");
         }
-        for (DataPoint dp : failedCourses) {
+        for (DataPoint dp : snapshot.failedCourses) {
             sb.append(String.format("  %-25s : %d fails\n", dp.label, dp.count));
         }
 
         sb.append("\n\n--- FINANCIAL REPORTS ---\n");
-        FinancialReport finReport = dbManager.getFinancialSummaryReport();
+        FinancialReport finReport = snapshot.finance;
         sb.append(String.format("  Total Invoiced (Due):     %,.2f\n", finReport.totalDue));
         sb.append(String.format("  Total Received (Paid):    %,.2f\n", finReport.totalPaid));
         sb.append(String.format("  --------------------------------------\n"));
         sb.append(String.format("  Net Balance (Paid - Due): %,.2f\n", finReport.netBalance));
         sb.append(String.format("\n  Total Transactions:     %d\n", finReport.totalTransactions));
 
-        reportArea.setText(sb.toString());
-        
-        return new JScrollPane(reportArea);
+        sb.append(String.format("\n  (as of %s)\n", new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(snapshot.computedAt))));
+        return sb.toString();
     }
     
     public JPanel createChartPanelStub() {
@@ -1052,8 +1177,11 @@ public void addClassroom() {
         JButton btnRefreshLog = new JButton("Refresh Log");
         btnRefreshLog.addActionListener(e -> refreshLogTable());
         
+        auditStatsLabel = new JLabel();
+        
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         bottomPanel.add(btnRefreshLog);
+        bottomPanel.add(auditStatsLabel);
         panel.add(bottomPanel, BorderLayout.SOUTH);
         
         return panel;
@@ -1074,95 +1202,368 @@ public void addClassroom() {
         return panel;
     }
 
+    public JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+
+        diagnosticsView = new JComboBox<>(new String[]{"By Method", "By SQL Statement"});
+        diagnosticsView.addActionListener(e -> refreshDiagnostics());
+        diagnosticsLabel = new JLabel();
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topPanel.add(diagnosticsView);
+        topPanel.add(diagnosticsLabel);
+        panel.add(topPanel, BorderLayout.NORTH);
+
+        diagnosticsModel = new DefaultTableModel(new Object[]{"Method", "Calls", "Errors", "Rows", "Mean ms", "p95 ms", "p99 ms", "Max ms", "Total ms"}, 0) {
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 0 ? String.class : column <= 3 ? Long.class : Double.class;
+            }
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable diagnosticsTable = new JTable(diagnosticsModel);
+        diagnosticsTable.setAutoCreateRowSorter(true);
+        diagnosticsTable.getColumnModel().getColumn(0).setPreferredWidth(420);
+        panel.add(new JScrollPane(diagnosticsTable), BorderLayout.CENTER);
+
+        JButton btnRefresh = new JButton("Refresh");
+        btnRefresh.addActionListener(e -> refreshDiagnostics());
+        JButton btnReset = new JButton("Reset Counters");
+        btnReset.addActionListener(e -> {
+            dbManager.resetMetrics();
+            refreshDiagnostics();
+        });
+        JButton btnExport = new JButton("Export Metrics...");
+        btnExport.addActionListener(e -> exportMetrics());
+
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottomPanel.add(btnRefresh);
+        bottomPanel.add(btnReset);
+        bottomPanel.add(btnExport);
+        panel.add(bottomPanel, BorderLayout.SOUTH);
+
+        refreshDiagnostics();
+        return panel;
+    }
+
+    // in-memory counters only, so this is cheap enough for the EDT
+    private void refreshDiagnostics() {
+        if (diagnosticsModel == null) return;
+        MetricsSnapshot snapshot = dbManager.getMetricsSnapshot();
+        boolean bySql = diagnosticsView.getSelectedIndex() == 1;
+        String nameColumn = bySql ? "SQL" : "Method";
+        if (!nameColumn.equals(diagnosticsModel.getColumnName(0))) {
+            diagnosticsModel.setColumnIdentifiers(new Object[]{nameColumn, "Calls", "Errors", "Rows", "Mean ms", "p95 ms", "p99 ms", "Max ms", "Total ms"});
+        }
+        diagnosticsModel.setRowCount(0);
+        for (OperationStats op : bySql ? snapshot.statements : snapshot.methods) {
+            HistogramSnapshot h = op.latency;
+            diagnosticsModel.addRow(new Object[]{op.name, op.calls(), op.errors, op.rows,
+                    round(h.meanMillis()), round(h.percentileMillis(0.95)), round(h.percentileMillis(0.99)),
+                    round(h.maxMillis()), round(h.totalMillis())});
+        }
+        HistogramSnapshot wait = snapshot.connectionWait;
+        diagnosticsLabel.setText(String.format("Since %s | connection wait: mean %.2f ms, p99 %.2f ms, max %.2f ms | pool: %s",
+                new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(snapshot.since)),
+                wait.meanMillis(), wait.percentileMillis(0.99), wait.maxMillis(), snapshot.pool));
+    }
+
+    public JPanel createSlowQueryPanel() {
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+
+        slowQueryLabel = new JLabel();
+        panel.add(slowQueryLabel, BorderLayout.NORTH);
+
+        slowQueryModel = new DefaultTableModel(new Object[]{"SQL", "Slowest In", "Times", "Max ms", "Mean ms", "Total ms", "Last Seen"}, 0) {
+            @Override
+            public Class<?> getColumnClass(int column) {
+                return column == 2 ? Long.class : column >= 3 && column <= 5 ? Double.class : String.class;
+            }
+
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable slowQueryTable = new JTable(slowQueryModel);
+        slowQueryTable.setAutoCreateRowSorter(true);
+        slowQueryTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        slowQueryTable.getColumnModel().getColumn(0).setPreferredWidth(420);
+        slowQueryTable.getColumnModel().getColumn(1).setPreferredWidth(200);
+
+        JTextArea detail = new JTextArea(10, 80);
+        detail.setEditable(false);
+        detail.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        slowQueryTable.getSelectionModel().addListSelectionListener(e -> {
+            int row = slowQueryTable.getSelectedRow();
+            if (e.getValueIsAdjusting()) return;
+            detail.setText(row < 0 ? "" : describeSlowQuery(slowQueryOffenders.get(slowQueryTable.convertRowIndexToModel(row))));
+            detail.setCaretPosition(0);
+        });
+
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(slowQueryTable), new JScrollPane(detail));
+        split.setResizeWeight(0.6);
+        panel.add(split, BorderLayout.CENTER);
+
+        JButton btnRefresh = new JButton("Refresh");
+        btnRefresh.addActionListener(e -> refreshSlowQueries());
+        JButton btnClear = new JButton("Clear List");
+        btnClear.addActionListener(e -> {
+            dbManager.clearSlowQueryOffenders();
+            refreshSlowQueries();
+        });
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        bottomPanel.add(btnRefresh);
+        bottomPanel.add(btnClear);
+        panel.add(bottomPanel, BorderLayout.SOUTH);
+
+        refreshSlowQueries();
+        return panel;
+    }
+
+    private void refreshSlowQueries() {
+        if (slowQueryModel == null) return;
+        slowQueryOffenders = dbManager.getSlowQueryOffenders();
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        slowQueryModel.setRowCount(0);
+        for (SlowQueryOffender o : slowQueryOffenders) {
+            slowQueryModel.addRow(new Object[]{o.sql, o.slowest.method, o.count, round(o.slowest.millis()),
+                    round(o.totalNanos / 1e6 / o.count), round(o.totalNanos / 1e6), fmt.format(new Date(o.lastSeen))});
+        }
+        slowQueryLabel.setText(dbManager.getSlowQueryLogStatus());
+    }
+
+    private static String describeSlowQuery(SlowQueryOffender o) {
+        SlowQuery q = o.slowest;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Slowest run: %.1f ms, %d rows, %s on %s at %s%s%n%n", q.millis(), q.rows, q.method, q.thread,
+                new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date(q.timestamp)), q.failed ? " (failed)" : ""));
+        sb.append(q.sql).append("\n\n");
+        if (!q.params.isEmpty()) sb.append("Parameters: ").append(q.params).append("\n\n");
+        sb.append("Query plan:\n").append(q.plan);
+        return sb.toString();
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 100) / 100.0;
+    }
+
+    private void exportMetrics() {
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Export Data Layer Metrics");
+        fc.setSelectedFile(new File("studentdb_metrics.prom"));
+        fc.setFileFilter(new FileNameExtensionFilter("Prometheus Text Files (*.prom)", "prom"));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File file = fc.getSelectedFile();
+        if (dbManager.exportMetrics(file)) {
+            JOptionPane.showMessageDialog(this, "Metrics written to " + file.getPath(), "Export Metrics", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "Could not write " + file.getPath(), "Export Metrics", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
     private void refreshTable() {
-        model.setRowCount(0);
-        ArrayList<StudentDisplayRecord> students = dbManager.getAllStudentsForDisplay(); 
-        for (StudentDisplayRecord s : students) {
-            model.addRow(new Object[]{ 
-                s.id, s.name, s.major, s.year,
-                s.classroomName != null ? s.classroomName : "N/A",
-                s.status.name(), s.gpa, s.email, s.phone, 
-                s.dateAdded,
-                s.homeroomTeacherName != null ? s.homeroomTeacherName : "N/A"
-            });
+        model.reload();
+    }
+
+    private void onDataChange(DataChange change) {
+        switch (change.type) {
+            case STUDENT -> {
+                if (change.isBulk()) {
+                    model.reload();
+                } else {
+                    model.applyChange(change.id, change.kind);
+                    applyFinanceChange(change);
+                }
+            }
+            case SUBJECT -> {
+                if (change.isBulk()) {
+                    refreshCourseTable();
+                } else {
+                    dao.load(this, null, db -> db.getSubjects(change.id), subjects -> {
+                        List<Object[]> rows = new ArrayList<>();
+                        for (Subject s : subjects) {
+                            rows.add(courseRow(s));
+                        }
+                        replaceRows(courseModel, change.id, rows);
+                    });
+                }
+            }
+            case CLASSROOM -> {
+                if (change.isBulk()) {
+                    refreshClassroomTable();
+                } else if (change.kind == ChangeKind.DELETED) {
+                    removeRows(classroomModel, change.id);
+                } else {
+                    dao.load(this, null, db -> db.getClassroomById(change.id), c -> {
+                        if (c != null) upsertRow(classroomModel, classroomRow(c));
+                    });
+                }
+                refreshAllClassroomsList();
+                // classroom and homeroom teacher names are shown on the student list
+                if (change.kind != ChangeKind.INSERTED) model.reload();
+            }
+            case LEAVE_REQUEST -> {
+                if (change.isBulk()) {
+                    refreshLeaveTable();
+                } else {
+                    dao.load(this, null, db -> db.getLeaveRequestById(Integer.parseInt(change.id)), req -> {
+                        if (req != null) upsertRow(leaveModel, leaveRow(req));
+                    });
+                }
+            }
+            case STUDENT_FINANCE -> {
+                if (change.isBulk()) {
+                    refreshFinanceTable();
+                } else {
+                    applyFinanceChange(change);
+                }
+            }
+            case USER -> refreshUserTable();
         }
     }
 
-    private void refreshCourseTable() {
-        courseModel.setRowCount(0);
-        ArrayList<Subject> subjects = dbManager.getAllSubjects();
-        for (Subject s : subjects) {
-            courseModel.addRow(new Object[]{
-                s.id, s.name, s.credits, s.majorName, s.semesterName,
-                s.teacherName, s.scheduleInfo, s.prerequisites
-            });
+    private void applyFinanceChange(DataChange change) {
+        if (financeModel == null) return;
+        if (change.kind == ChangeKind.DELETED) {
+            removeRows(financeModel, change.id);
+            return;
         }
+        dao.load(this, null, db -> db.getStudentFinanceSummary(change.id), summary -> {
+            if (summary != null) upsertRow(financeModel, financeRow(summary));
+        });
+    }
+
+    // rows in these tables are keyed by column 0
+    private static void upsertRow(DefaultTableModel tableModel, Object[] row) {
+        if (tableModel == null) return;
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if (row[0].equals(tableModel.getValueAt(i, 0))) {
+                for (int c = 0; c < row.length; c++) {
+                    tableModel.setValueAt(row[c], i, c);
+                }
+                return;
+            }
+        }
+        tableModel.addRow(row);
+    }
+
+    // like upsertRow for keys with several rows (a course has one per teaching assignment):
+    // existing rows are overwritten in place so they keep their position and selection
+    private static void replaceRows(DefaultTableModel tableModel, String key, List<Object[]> rows) {
+        if (tableModel == null) return;
+        List<Integer> existing = new ArrayList<>();
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            if (key.equals(String.valueOf(tableModel.getValueAt(i, 0)))) existing.add(i);
+        }
+        int shared = Math.min(existing.size(), rows.size());
+        for (int r = 0; r < shared; r++) {
+            Object[] row = rows.get(r);
+            for (int c = 0; c < row.length; c++) {
+                tableModel.setValueAt(row[c], existing.get(r), c);
+            }
+        }
+        int insertAt = existing.isEmpty() ? tableModel.getRowCount() : existing.get(existing.size() - 1) + 1;
+        for (int r = shared; r < rows.size(); r++) {
+            tableModel.insertRow(insertAt++, rows.get(r));
+        }
+        for (int r = existing.size() - 1; r >= shared; r--) {
+            tableModel.removeRow(existing.get(r));
+        }
+    }
+
+    private static void removeRows(DefaultTableModel tableModel, String key) {
+        if (tableModel == null) return;
+        for (int i = tableModel.getRowCount() - 1; i >= 0; i--) {
+            if (key.equals(String.valueOf(tableModel.getValueAt(i, 0)))) {
+                tableModel.removeRow(i);
+            }
+        }
+    }
+
+    private static Object[] courseRow(Subject s) {
+        return new Object[]{s.id, s.name, s.credits, s.majorName, s.semesterName, s.teacherName, s.scheduleInfo, s.prerequisites};
+    }
+
+    private static Object[] classroomRow(Classroom c) {
+        return new Object[]{
+            c.id,
+            c.name,
+            c.type.toString(),
+            c.majorName != null ? c.majorName : "N/A",
+            c.teacherName != null ? c.teacherName : "N/A"
+        };
+    }
+
+    private static Object[] leaveRow(LeaveRequest req) {
+        return new Object[]{req.id, req.teacherName, req.startDate, req.endDate, req.reason, req.status};
+    }
+
+    private static Object[] financeRow(FinanceSummary summary) {
+        return new Object[]{summary.studentId, summary.studentName, summary.totalDue, summary.totalPaid, summary.balance, summary.status};
+    }
+
+    private void refreshCourseTable() {
+        dao.load(this, courseModel, DatabaseManager::getAllSubjects, subjects -> {
+            courseModel.setRowCount(0);
+            for (Subject s : subjects) {
+                courseModel.addRow(courseRow(s));
+            }
+        });
     }
     
 private void refreshClassroomTable() {
         if (classroomModel == null) return;
-        classroomModel.setRowCount(0);
-        ArrayList<Classroom> classrooms = dbManager.getAllClassrooms();
-        for (Classroom c : classrooms) {
-            classroomModel.addRow(new Object[]{
-                c.id,
-                c.name,
-                c.type.toString(),
-                c.majorName != null ? c.majorName : "N/A",
-                c.teacherName != null ? c.teacherName : "N/A"
-            });
-        }
+        dao.load(this, classroomModel, DatabaseManager::getAllClassrooms, classrooms -> {
+            classroomModel.setRowCount(0);
+            for (Classroom c : classrooms) {
+                classroomModel.addRow(classroomRow(c));
+            }
+        });
     }
     
     private void refreshLeaveTable() {
         if (leaveModel == null) return; 
-        leaveModel.setRowCount(0);
-        ArrayList<LeaveRequest> requests = dbManager.getAllLeaveRequests();
-        for (LeaveRequest req : requests) {
-            leaveModel.addRow(new Object[]{
-                req.id,
-                req.teacherName,
-                req.startDate,
-                req.endDate,
-                req.reason,
-                req.status
-            });
-        }
+        dao.load(this, leaveModel, DatabaseManager::getAllLeaveRequests, requests -> {
+            leaveModel.setRowCount(0);
+            for (LeaveRequest req : requests) {
+                leaveModel.addRow(leaveRow(req));
+            }
+        });
     }
     
     public void refreshFinanceTable() {
         if (financeModel == null) return;
-        financeModel.setRowCount(0);
-        ArrayList<FinanceSummary> summaries = dbManager.getAllStudentFinanceSummary();
-        
-        for (FinanceSummary summary : summaries) {
-            financeModel.addRow(new Object[]{
-                summary.studentId,
-                summary.studentName,
-                summary.totalDue,
-                summary.totalPaid,
-                summary.balance,
-                summary.status
-            });
-        }
-        
-        clearFinanceDetailView();
+        dao.load(this, financeModel, DatabaseManager::getAllStudentFinanceSummary, summaries -> {
+            financeModel.setRowCount(0);
+            for (FinanceSummary summary : summaries) {
+                financeModel.addRow(financeRow(summary));
+            }
+            clearFinanceDetailView();
+        });
     }
 
     public void updateFinanceDetailView(String studentId, String studentName) {
         financeDetailLabel.setText("Financial Details for: " + studentName + " (ID: " + studentId + ")");
         
         invoiceDetailModel.setRowCount(0);
-        ArrayList<Invoice> invoices = dbManager.getInvoicesForStudent(studentId);
-        for (Invoice inv : invoices) {
-            invoiceDetailModel.addRow(new Object[]{inv.id, inv.issueDate, inv.dueDate, inv.totalAmount, inv.status});
-        }
+        dao.load(this, invoiceDetailModel, db -> db.getInvoicesForStudent(studentId), invoices -> {
+            invoiceDetailModel.setRowCount(0);
+            for (Invoice inv : invoices) {
+                invoiceDetailModel.addRow(new Object[]{inv.id, inv.issueDate, inv.dueDate, inv.totalAmount, inv.status});
+            }
+        });
 
         transactionDetailModel.setRowCount(0);
-        ArrayList<Transaction> transactions = dbManager.getTransactionsForStudent(studentId);
-        for (Transaction tx : transactions) {
-            transactionDetailModel.addRow(new Object[]{tx.id, tx.paymentDate, tx.amountPaid, tx.paymentMethod});
-        }
+        dao.load(this, transactionDetailModel, db -> db.getTransactionsForStudent(studentId), transactions -> {
+            transactionDetailModel.setRowCount(0);
+            for (Transaction tx : transactions) {
+                transactionDetailModel.addRow(new Object[]{tx.id, tx.paymentDate, tx.amountPaid, tx.paymentMethod});
+            }
+        });
     }
     
     public void clearFinanceDetailView() {
@@ -1173,69 +1574,51 @@ private void refreshClassroomTable() {
     
     private void refreshUserTable() {
         if (userModel == null) return;
-        userModel.setRowCount(0);
-        ArrayList<UserAccount> users = dbManager.getAllUserAccounts();
-        for (UserAccount user : users) {
-            userModel.addRow(new Object[]{user.username, user.role, user.lastLogin});
-        }
+        dao.load(this, userModel, DatabaseManager::getAllUserAccounts, users -> {
+            userModel.setRowCount(0);
+            for (UserAccount user : users) {
+                userModel.addRow(new Object[]{user.username, user.role, user.lastLogin});
+            }
+        });
     }
 
     private void refreshLogTable() {
         if (logModel == null) return;
-        logModel.setRowCount(0);
-        ArrayList<ActivityLog> logs = dbManager.getActivityLogs();
-        for (ActivityLog log : logs) {
-            logModel.addRow(new Object[]{log.timestamp, log.username, log.action});
-        }
+        dao.load(this, logModel, DatabaseManager::getActivityLogs, logs -> {
+            logModel.setRowCount(0);
+            for (ActivityLog log : logs) {
+                logModel.addRow(new Object[]{log.timestamp, log.username, log.action});
+            }
+            if (auditStatsLabel != null) {
+                auditStatsLabel.setText("Audit writer: " + dbManager.getAuditStats());
+            }
+        });
     }
     
     private void filterTable() {
         if (tabbedPane.getSelectedIndex() != 0) { 
-            sorter.setRowFilter(null);
+            model.setFilter(null, null, null);
             return;
         }
         
-        List<RowFilter<Object, Object>> filters = new ArrayList<>();
         String text = searchField.getText();
+        model.setFilter(text, selectedYearFilter(), selectedClassroomFilter());
+    }
 
-        if (text != null && !text.trim().isEmpty()) {
-            try {
-                List<RowFilter<Object, Object>> textOrFilters = new ArrayList<>();
-                String searchText = "(?i)" + text;
-                
-                textOrFilters.add(RowFilter.regexFilter(searchText, 0));
-                textOrFilters.add(RowFilter.regexFilter(searchText, 1));
-                textOrFilters.add(RowFilter.regexFilter(searchText, 2));
-                textOrFilters.add(RowFilter.regexFilter(searchText, 4));
-                textOrFilters.add(RowFilter.regexFilter(searchText, 7));
-                textOrFilters.add(RowFilter.regexFilter(searchText, 10));
-                
-                filters.add(RowFilter.orFilter(textOrFilters));
-                
-            } catch (java.util.regex.PatternSyntaxException e) {
-            }
-        }
-
+    private Integer selectedYearFilter() {
         String yearFilter = (String) yearFilterComboBox.getSelectedItem();
         if (yearFilter != null && !yearFilter.equals("All Years")) {
             try {
-                int year = Integer.parseInt(yearFilter.replace("+", ""));
-                filters.add(RowFilter.numberFilter(RowFilter.ComparisonType.EQUAL, year, 3)); 
+                return Integer.parseInt(yearFilter.replace("+", ""));
             } catch (NumberFormatException e) {
             }
         }
-        
+        return null;
+    }
+
+    private String selectedClassroomFilter() {
         Classroom selectedClassroom = (Classroom) classroomFilterComboBox.getSelectedItem();
-        if (selectedClassroom != null && selectedClassroom.id != null) {
-            filters.add(RowFilter.regexFilter("^" + Pattern.quote(selectedClassroom.name) + "$", 4));
-        }
-        
-        if (filters.isEmpty()) {
-            sorter.setRowFilter(null);
-        } else {
-            RowFilter<Object, Object> combinedFilter = RowFilter.andFilter(filters);
-            sorter.setRowFilter(combinedFilter);
-        }
+        return (selectedClassroom != null) ? selectedClassroom.id : null;
     }
 
     public String validateInput(String id, String name, String ageStr, String gpaStr, String major, String email, String yearStr, String status, boolean isNew) {
@@ -1254,7 +1637,10 @@ private void refreshClassroomTable() {
     }
 
     private void showStatistics() {
-        List<Student> students = dbManager.getAllStudents();
+        dao.load(this, null, db -> db.getAllStudents(), this::showStatistics);
+    }
+
+    private void showStatistics(List<Student> students) {
         if (students.isEmpty()) { JOptionPane.showMessageDialog(this, "No data."); return; }
         double total = 0, max = Double.MIN_VALUE, min = Double.MAX_VALUE;
         for (Student s : students) { total += s.gpa; max = Math.max(max, s.gpa); min = Math.min(min, s.gpa); }
@@ -1279,38 +1665,161 @@ private void refreshClassroomTable() {
         JFileChooser fc = new JFileChooser();
         fc.setDialogTitle("Import Students File");
         fc.setFileFilter(new FileNameExtensionFilter("Data Files (.txt, .csv, .xml)", "txt", "csv", "xml"));
-        if (fc.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            File file = fc.getSelectedFile();
-            String ext = file.getName().substring(file.getName().lastIndexOf(".") + 1);
-            List<Student> importedStudents = null;
-            switch (ext.toLowerCase()) {
-                case "txt" -> importedStudents = dataManager.loadFromFile(file);
-                case "csv" -> importedStudents = dataManager.loadFromCsv(file);
-                case "xml" -> importedStudents = dataManager.loadFromXml(file);
-                default -> JOptionPane.showMessageDialog(this, "Unsupported file type.", "Error", JOptionPane.ERROR_MESSAGE);
+        if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = fc.getSelectedFile();
+        String ext = file.getName().substring(file.getName().lastIndexOf(".") + 1).toLowerCase();
+        if (!List.of("txt", "csv", "xml").contains(ext)) {
+            JOptionPane.showMessageDialog(this, "Unsupported file type.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Importing " + file.getName(), "Reading...", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        importItem.setEnabled(false);
+
+        SwingWorker<ImportReport, Void> worker = new SwingWorker<>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                return new StudentImportJob(dbManager, dataManager).run(file,
+                        (read, total) -> SwingUtilities.invokeLater(() -> {
+                            monitor.setNote(String.format("%,d / %,d KB", read / 1024, total / 1024));
+                            monitor.setProgress(total == 0 ? 100 : (int) (read * 100 / total));
+                        }),
+                        monitor::isCanceled);
             }
-            if (importedStudents != null) {
-                int countAdded = 0, countSkipped = 0;
-                for (Student s : importedStudents) {
-                    if (!dbManager.isStudentIdExists(s.id)) {
-                        dbManager.addStudent(s);
-                        countAdded++;
-                    } else { countSkipped++; }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                importItem.setEnabled(true);
+                ImportReport report;
+                try {
+                    report = get();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Failed to import file.\n" + e.getMessage()
+                            + "\nBatches committed before the error were kept.", "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
                 }
-                refreshTable();
-                JOptionPane.showMessageDialog(this, "Import complete.\nAdded: " + countAdded + "\nSkipped (ID exists): " + countSkipped);
-            } else { JOptionPane.showMessageDialog(this, "Failed to import file.", "Error", JOptionPane.ERROR_MESSAGE); }
-        }
+                dbManager.logActivity(currentUsername, "Imported " + report.inserted + " students from " + file.getName());
+                String message = (report.cancelled ? "Import cancelled." : "Import complete.")
+                        + "\nAdded: " + report.inserted
+                        + "\nSkipped (ID exists): " + report.duplicates
+                        + "\nInvalid rows: " + report.invalid
+                        + String.format("\nTime: %.1f s", report.elapsedMillis / 1000.0);
+                if (!report.hasErrors()) {
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, message);
+                    return;
+                }
+                int choice = JOptionPane.showConfirmDialog(StudentManagementGUI.this, message + "\n\nSave a report of the skipped and invalid rows?",
+                        "Import Finished", JOptionPane.YES_NO_OPTION);
+                if (choice == JOptionPane.YES_OPTION) {
+                    JFileChooser saver = new JFileChooser();
+                    saver.setSelectedFile(new File(file.getName() + ".errors.csv"));
+                    if (saver.showSaveDialog(StudentManagementGUI.this) == JFileChooser.APPROVE_OPTION) {
+                        try {
+                            report.writeErrorReport(saver.getSelectedFile());
+                        } catch (IOException e) {
+                            JOptionPane.showMessageDialog(StudentManagementGUI.this, "Could not save report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    }
+                }
+            }
+        };
+        worker.execute();
     }
 
     private void exportToJson() {
-        List<Student> students = dbManager.getAllStudents();
-        if (dataManager.exportToJson(students)) { JOptionPane.showMessageDialog(this, "Exported to students.json", "Export Success", JOptionPane.INFORMATION_MESSAGE); } else { JOptionPane.showMessageDialog(this, "Failed to export to JSON", "Error", JOptionPane.ERROR_MESSAGE); }
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Export Students to JSON");
+        fc.setSelectedFile(new File("students.json"));
+        fc.setFileFilter(new FileNameExtensionFilter("JSON (.json, .json.gz)", "json", "gz"));
+
+        JPanel options = new JPanel();
+        options.setLayout(new BoxLayout(options, BoxLayout.Y_AXIS));
+        options.setBorder(BorderFactory.createTitledBorder("Fields"));
+        List<JCheckBox> fieldBoxes = new ArrayList<>();
+        for (String field : StudentJsonWriter.ALL_FIELDS) {
+            JCheckBox box = new JCheckBox(field, true);
+            fieldBoxes.add(box);
+            options.add(box);
+        }
+        options.add(Box.createVerticalStrut(8));
+        JCheckBox gzipBox = new JCheckBox("Compress (gzip)");
+        options.add(gzipBox);
+        fc.setAccessory(new JScrollPane(options));
+
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+
+        List<String> fields = new ArrayList<>();
+        for (JCheckBox box : fieldBoxes) {
+            if (box.isSelected()) fields.add(box.getText());
+        }
+        if (fields.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Select at least one field to export.", "Export", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        File chosen = fc.getSelectedFile();
+        boolean gzip = gzipBox.isSelected() || chosen.getName().toLowerCase().endsWith(".gz");
+        File target = gzip && !chosen.getName().toLowerCase().endsWith(".gz") ? new File(chosen.getPath() + ".gz") : chosen;
+
+        SwingWorker<Long, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                try (StudentJsonWriter writer = dataManager.openJsonExport(target, fields, gzip)) {
+                    dbManager.streamAllStudents(writer::write);
+                    return writer.count();
+                }
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    long rows = get();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Exported " + rows + " students to " + target.getPath(), "Export Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Failed to export to JSON: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        worker.execute();
     }
 
     private void exportToXml() {
-        List<Student> students = dbManager.getAllStudents();
-        if (dataManager.exportToXml(students)) { JOptionPane.showMessageDialog(this, "Exported to students.xml", "Export Success", JOptionPane.INFORMATION_MESSAGE); } else { JOptionPane.showMessageDialog(this, "Failed to export to XML", "Error", JOptionPane.ERROR_MESSAGE); }
+        JFileChooser fc = new JFileChooser();
+        fc.setDialogTitle("Export Students to XML");
+        fc.setSelectedFile(new File("students.xml"));
+        fc.setFileFilter(new FileNameExtensionFilter("XML (.xml)", "xml"));
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File target = fc.getSelectedFile();
+
+        SwingWorker<Long, Void> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                try (StudentXmlWriter writer = dataManager.openXmlExport(target)) {
+                    dbManager.streamAllStudents(writer::write);
+                    return writer.count();
+                }
+            }
+
+            @Override
+            protected void done() {
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    long rows = get();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Exported " + rows + " students to " + target.getPath(), "Export Success", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Failed to export to XML: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        worker.execute();
     }
     
     private void showNotImplemented(String featureName) 
@@ -1326,11 +1835,91 @@ private void refreshClassroomTable() {
         userMgmtItem.addActionListener(e -> showUserManagement());
         JMenuItem dbBackupItem = new JMenuItem("Database Backup...");
         dbBackupItem.addActionListener(e -> performDatabaseBackup());
+        JMenuItem verifyBalancesItem = new JMenuItem("Verify Invoice Balances...");
+        verifyBalancesItem.addActionListener(e -> verifyInvoiceBalances());
+        JMenuItem recomputeGpaItem = new JMenuItem("Recompute GPAs...");
+        recomputeGpaItem.addActionListener(e -> recomputeGpas());
         adminMenu.add(userMgmtItem);
         adminMenu.add(dbBackupItem);
+        adminMenu.add(verifyBalancesItem);
+        adminMenu.add(recomputeGpaItem);
         return adminMenu;
     }
 
+    private void recomputeGpas() {
+        Integer year = selectedYearFilter();
+        String classroomId = selectedClassroomFilter();
+        boolean filtered = year != null || classroomId != null;
+        String[] options = filtered
+            ? new String[]{"All Students", "Current Filter Only", "Cancel"}
+            : new String[]{"All Students", "Cancel"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Recompute GPA from the enrolled grades?\nUse this after importing grades or changing the grade point scale.",
+            "Recompute GPAs", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        if (choice < 0 || choice == options.length - 1) return;
+        boolean cohortOnly = choice == 1;
+        Integer cohortYear = cohortOnly ? year : null;
+        String cohortClassroom = cohortOnly ? classroomId : null;
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Recomputing GPAs", "Scanning enrollments...", 0, 100);
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+
+        SwingWorker<GpaRecomputeResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected GpaRecomputeResult doInBackground() throws Exception {
+                return new GpaRecomputeJob(dbManager).run(cohortYear, cohortClassroom,
+                        (done, total) -> SwingUtilities.invokeLater(() -> {
+                            monitor.setNote(done + " / " + total + " students updated");
+                            monitor.setProgress(total == 0 ? 100 : done * 100 / total);
+                        }),
+                        monitor::isCanceled);
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    GpaRecomputeResult result = get();
+                    dbManager.logActivity(currentUsername, "Recomputed GPAs (" + result + ")");
+                    String message = String.format("Checked %d students, updated %d in %.1f s.",
+                            result.scanned, result.changed, result.elapsedMillis / 1000.0);
+                    if (result.cancelled) {
+                        message += "\nThe run was cancelled; run it again to finish the remaining students.";
+                    }
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, message, "Recompute GPAs", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this,
+                            "An error occurred while recomputing GPAs. Chunks already committed are kept; run it again to finish.\n" + e.getMessage(),
+                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private void verifyInvoiceBalances() {
+        dao.load(this, null, db -> db.findInconsistentInvoiceBalances(), mismatched -> {
+            if (mismatched.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "All invoice balances match the payment ledger.", "Invoice Balances", JOptionPane.INFORMATION_MESSAGE);
+                return;
+            }
+            int confirm = JOptionPane.showConfirmDialog(this,
+                mismatched.size() + " invoice(s) have balances or statuses that do not match their payments.\nRebuild them from the Transactions ledger now?",
+                "Invoice Balances", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+            if (confirm != JOptionPane.YES_OPTION) return;
+            dao.submit(this, db -> db.repairInvoiceBalances(), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Rebuilt invoice balances (" + mismatched.size() + " mismatched)");
+                    JOptionPane.showMessageDialog(this, "Invoice balances rebuilt.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to rebuild invoice balances.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
+        });
+    }
+
     private JMenu createHelpMenu() {
         JMenu helpMenu = new JMenu("❓ Help");
         JMenuItem helpItem = new JMenuItem("View Help");
@@ -1432,15 +2021,49 @@ private void refreshClassroomTable() {
         String defaultName = "backup_" + timestamp + ".db";
         fc.setSelectedFile(new File(defaultName));
         fc.setFileFilter(new FileNameExtensionFilter("Database Files (*.db)", "db"));
-        if (fc.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            File destFile = fc.getSelectedFile();
-            try {
-                java.nio.file.Path sourcePath = sourceFile.toPath();
-                java.nio.file.Path destPath = destFile.toPath();
-                Files.copy(sourcePath, destPath, StandardCopyOption.REPLACE_EXISTING);
-                JOptionPane.showMessageDialog(this, "Database backup successful!", "Backup Success", JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException ex) { ex.printStackTrace(); JOptionPane.showMessageDialog(this, "Backup failed: " + ex.getMessage(), "Backup Error", JOptionPane.ERROR_MESSAGE); }
-        }
+        if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        File destFile = fc.getSelectedFile();
+
+        ProgressMonitor monitor = new ProgressMonitor(this, "Backing up database to " + destFile.getName(), "Starting...", 0, 100);
+        monitor.setMillisToDecideToPopup(0);
+        monitor.setMillisToPopup(0);
+
+        // the copy runs on its own connection; other sessions keep reading and writing meanwhile
+        SwingWorker<BackupResult, Void> worker = new SwingWorker<>() {
+            @Override
+            protected BackupResult doInBackground() throws Exception {
+                return new BackupEngine(dbManager).backupTo(destFile,
+                        (copied, total) -> SwingUtilities.invokeLater(() -> {
+                            monitor.setNote(String.format("%,d / %,d KB", copied / 1024, total / 1024));
+                            monitor.setProgress(total == 0 ? 100 : (int) (copied * 100 / total));
+                        }),
+                        monitor::isCanceled);
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                try {
+                    BackupResult result = get();
+                    if (result.cancelled) {
+                        JOptionPane.showMessageDialog(StudentManagementGUI.this, "Backup cancelled.", "Backup", JOptionPane.INFORMATION_MESSAGE);
+                    } else if (result.isHealthy()) {
+                        dbManager.logActivity(currentUsername, "Database backup to " + destFile.getName() + " (" + result.method + ")");
+                        JOptionPane.showMessageDialog(StudentManagementGUI.this,
+                                String.format("Database backup successful!%n%s (%,d KB, integrity check passed)", destFile.getName(), result.bytes / 1024),
+                                "Backup Success", JOptionPane.INFORMATION_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(StudentManagementGUI.this,
+                                "The backup copy failed its integrity check and was discarded:\n" + result.integrity,
+                                "Backup Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    JOptionPane.showMessageDialog(StudentManagementGUI.this, "Backup failed: " + ex.getMessage(), "Backup Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.execute();
     }
 
     private void showHelpDialog() {
@@ -1459,14 +2082,13 @@ private void refreshClassroomTable() {
             return;
         }
         
-        int modelRow = table.convertRowIndexToModel(viewRow);
-        String studentId = (String) model.getValueAt(modelRow, 0);
-        String studentName = (String) model.getValueAt(modelRow, 1);
+        StudentDisplayRecord selected = model.getRecordAt(table.convertRowIndexToModel(viewRow));
+        if (selected == null) return;
+        String studentId = selected.id;
+        String studentName = selected.name;
 
         AcademicRecordGUI recordDialog = new AcademicRecordGUI(this, dbManager, studentId, studentName);
         recordDialog.setVisible(true);
-
-        refreshTable();
     }
 
     public void resetPassword() {
@@ -1479,12 +2101,14 @@ private void refreshClassroomTable() {
         String newPassword = JOptionPane.showInputDialog(this, "Enter new temporary password for " + username + ":", "Reset Password", JOptionPane.PLAIN_MESSAGE);
         
         if (newPassword != null && !newPassword.trim().isEmpty()) {
-            if (dbManager.resetUserPassword(username, newPassword.trim())) {
-                dbManager.logActivity(currentUsername, "Reset password for user: " + username);
-                JOptionPane.showMessageDialog(this, "Password reset successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to reset password.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.resetUserPassword(username, newPassword.trim()), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Reset password for user: " + username);
+                    JOptionPane.showMessageDialog(this, "Password reset successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to reset password.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -1505,13 +2129,14 @@ private void refreshClassroomTable() {
         );
 
         if (newRole != null && newRole != currentRole) {
-            if (dbManager.updateUserRole(username, newRole)) {
-                dbManager.logActivity(currentUsername, "Changed role for " + username + " to " + newRole.name());
-                JOptionPane.showMessageDialog(this, "Role updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshUserTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to update role.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.updateUserRole(username, newRole), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "Changed role for " + username + " to " + newRole.name());
+                    JOptionPane.showMessageDialog(this, "Role updated successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to update role.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 
@@ -1540,14 +2165,14 @@ private void refreshClassroomTable() {
         );
         
         if (confirm == JOptionPane.YES_OPTION) {
-            if (dbManager.deleteUser(username, role)) {
-                dbManager.logActivity(currentUsername, "DELETED user: " + username);
-                JOptionPane.showMessageDialog(this, "User deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                refreshUserTable();
-                refreshTable();
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to delete user.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.deleteUser(username, role), success -> {
+                if (success) {
+                    dbManager.logActivity(currentUsername, "DELETED user: " + username);
+                    JOptionPane.showMessageDialog(this, "User deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to delete user.", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         }
     }
 }
\ No newline at end of file
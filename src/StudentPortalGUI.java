@@ -4,13 +4,11 @@ import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
-import java.awt.Image;
 import java.awt.Insets;
 import java.io.File;
 import java.util.ArrayList; 
 import javax.swing.BorderFactory;
 import javax.swing.Box;
-import javax.swing.ImageIcon;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -32,6 +30,7 @@ public class StudentPortalGUI extends JFrame {
 
     private String currentUsername;
     private DatabaseManager dbManager;
+    private AsyncDao dao;
     private Student currentStudent;
     private Teacher homeroomTeacher; 
     private Classroom classroom;
@@ -48,7 +47,9 @@ private DefaultTableModel transcriptModel;
     public StudentPortalGUI(Role role, String username) {
         this.currentUsername = username;
         this.dbManager = new DatabaseManager();
+        this.dao = new AsyncDao(dbManager);
 
+        // the profile tab is built from these, so they are read before the window opens
         this.currentStudent = dbManager.getStudentById(this.currentUsername);
         this.homeroomTeacher = dbManager.getHomeroomTeacher(this.currentUsername); 
         this.classroom = dbManager.getClassroomById(this.currentStudent.classroomId);
@@ -131,18 +132,18 @@ private JPanel createTranscriptTab() {
     }
 
     private void loadTranscript() {
-        transcriptModel.setRowCount(0);
-        
-        enrollmentRecords = dbManager.getEnrollmentsForStudent(this.currentUsername);
-        
-        for (EnrollmentRecord er : enrollmentRecords) {
-            transcriptModel.addRow(new Object[]{
-                er.subjectId,
-                er.subjectName,
-                er.credits,
-                er.grade
-            });
-        }
+        dao.load(this, transcriptModel, db -> db.getEnrollmentsForStudent(currentUsername), records -> {
+            enrollmentRecords = records;
+            transcriptModel.setRowCount(0);
+            for (EnrollmentRecord er : enrollmentRecords) {
+                transcriptModel.addRow(new Object[]{
+                    er.subjectId,
+                    er.subjectName,
+                    er.credits,
+                    er.grade
+                });
+            }
+        });
         
         if (currentStudent != null) {
             gpaLabel.setText(String.format("Overall GPA: %.2f", currentStudent.gpa));
@@ -151,7 +152,11 @@ private JPanel createTranscriptTab() {
 
     private void loadAssignmentGrades(int enrollmentId) {
         assignmentModel.setRowCount(0);
-        ArrayList<AssignmentGrade> grades = dbManager.getAssignmentGradesForEnrollment(enrollmentId);
+        dao.load(this, assignmentModel, db -> db.getAssignmentGradesForEnrollment(enrollmentId), this::fillAssignmentGrades);
+    }
+
+    private void fillAssignmentGrades(ArrayList<AssignmentGrade> grades) {
+        assignmentModel.setRowCount(0);
         for (AssignmentGrade grade : grades) {
             assignmentModel.addRow(new Object[]{
                 grade.assignmentName,
@@ -170,18 +175,14 @@ private JPanel createTranscriptTab() {
         photoLabel.setHorizontalAlignment(SwingConstants.CENTER);
         photoLabel.setBorder(BorderFactory.createLineBorder(Color.GRAY));
         
-        try {
-            if (currentStudent.photoPath != null && !currentStudent.photoPath.isEmpty() && new File(currentStudent.photoPath).exists()) {
-                ImageIcon icon = new ImageIcon(currentStudent.photoPath);
-                Image img = icon.getImage().getScaledInstance(150, 150, Image.SCALE_SMOOTH);
-                photoLabel.setIcon(new ImageIcon(img));
-                photoLabel.setText("");
-            } else {
-                photoLabel.setText("No Photo");
-            }
-        } catch (Exception e) {
-            photoLabel.setText("Photo Error");
-            e.printStackTrace();
+        if (currentStudent.photoPath != null && !currentStudent.photoPath.isEmpty() && new File(currentStudent.photoPath).exists()) {
+            photoLabel.setText("Loading...");
+            PhotoThumbnailService.shared().load(currentStudent.photoPath, PhotoThumbnailService.PROFILE_SIZE, icon -> {
+                photoLabel.setIcon(icon);
+                photoLabel.setText(icon != null ? "" : "Photo Error");
+            });
+        } else {
+            photoLabel.setText("No Photo");
         }
         
         panel.add(photoLabel, BorderLayout.WEST);
@@ -224,13 +225,14 @@ private JPanel createTranscriptTab() {
     }
 
     private void loadStudentSchedule() {
-        scheduleModel.setRowCount(0);
-        ArrayList<StudentSchedule> scheduleList = dbManager.getStudentSchedule(this.currentUsername);
-        for (StudentSchedule s : scheduleList) {
-            scheduleModel.addRow(new Object[]{
-                s.subjectId, s.subjectName, s.teacherName, s.scheduleInfo
-            });
-        }
+        dao.load(this, scheduleModel, db -> db.getStudentSchedule(currentUsername), scheduleList -> {
+            scheduleModel.setRowCount(0);
+            for (StudentSchedule s : scheduleList) {
+                scheduleModel.addRow(new Object[]{
+                    s.subjectId, s.subjectName, s.teacherName, s.scheduleInfo
+                });
+            }
+        });
     }
 
     private GridBagConstraints createGbc(int x, int y) {
@@ -265,10 +267,12 @@ private JMenuBar createMenuBar() {
         JMenu fileMenu = new JMenu("File");
         JMenuItem refreshItem = new JMenuItem("🔄 Refresh Data");
         refreshItem.addActionListener(e -> {
-            this.currentStudent = dbManager.getStudentById(this.currentUsername);
-            loadStudentSchedule();
-            loadTranscript();
             assignmentModel.setRowCount(0);
+            loadStudentSchedule();
+            dao.load(this, "student", db -> db.getStudentById(currentUsername), student -> {
+                if (student != null) this.currentStudent = student;
+                loadTranscript();
+            });
         });
         fileMenu.add(refreshItem);
         
@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the searchable student columns (ID, name, major,
+ * classroom, email, homeroom teacher), with one bitset per year and per
+ * classroom for the combo filters. A text query intersects the shortest posting
+ * list of its trigrams with the filter bitsets and then checks the few
+ * candidates left, so it matches the SQL LIKE '%text%' search without scanning.
+ *
+ * Built once in the background from the display join and kept in sync from the
+ * DataChangeBus on its own thread. A changed student gets a new doc number and
+ * the old one is cleared from the live set; the index is rebuilt when too many
+ * dead docs pile up or a classroom changes (its name is copied into every doc).
+ */
+class StudentSearchIndex {
+
+    private static final char FIELD_SEPARATOR = '\n';
+    private static final Comparator<StudentDisplayRecord> BY_ID = Comparator.comparing(r -> r.id);
+
+    private final DatabaseManager db;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-search-index");
+        t.setDaemon(true);
+        return t;
+    });
+    private final DataChangeListener changeListener = this::onChange;
+    private final CopyOnWriteArrayList<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private volatile boolean ready = false;
+
+    // guarded by lock; doc number -> record / lower-cased search text
+    private ArrayList<StudentDisplayRecord> docs = new ArrayList<>();
+    private ArrayList<String> texts = new ArrayList<>();
+    private HashMap<String, Integer> docById = new HashMap<>();
+    private HashMap<Long, Postings> trigrams = new HashMap<>();
+    private HashMap<Integer, BitSet> byYear = new HashMap<>();
+    private HashMap<String, BitSet> byClassroom = new HashMap<>();
+    private BitSet live = new BitSet();
+
+    StudentSearchIndex(DatabaseManager db) {
+        this.db = db;
+    }
+
+    void start() {
+        db.subscribe(changeListener);
+        worker.submit(this::rebuild);
+    }
+
+    void dispose() {
+        db.unsubscribe(changeListener);
+        worker.shutdownNow();
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    /** Called on the index thread after the first build and after every change applied. */
+    void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Records matching the query's text, year and classroom, in the query's sort
+     * order; null if the calling thread was interrupted because a newer search
+     * replaced this one.
+     */
+    List<StudentDisplayRecord> search(StudentQuery q) {
+        List<StudentDisplayRecord> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            if (q.year != null) matches.and(byYear.getOrDefault(q.year, new BitSet()));
+            if (q.classroomId != null) matches.and(byClassroom.getOrDefault(q.classroomId, new BitSet()));
+            if (q.text != null) matches = matchText(q.text.toLowerCase(Locale.ROOT), matches);
+            if (matches == null) return null;
+            for (int doc = matches.nextSetBit(0); doc >= 0; doc = matches.nextSetBit(doc + 1)) {
+                result.add(docs.get(doc));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (Thread.currentThread().isInterrupted()) return null;
+        result.sort(comparator(q));
+        return Thread.currentThread().isInterrupted() ? null : result;
+    }
+
+    private BitSet matchText(String needle, BitSet allowed) {
+        BitSet out = new BitSet();
+        if (needle.length() < 3) {
+            // too short for a trigram; the filters have usually narrowed it down already
+            for (int doc = allowed.nextSetBit(0); doc >= 0; doc = allowed.nextSetBit(doc + 1)) {
+                if ((doc & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) return null;
+                if (texts.get(doc).contains(needle)) out.set(doc);
+            }
+            return out;
+        }
+        Postings shortest = null;
+        for (int i = 0; i + 3 <= needle.length(); i++) {
+            Postings p = trigrams.get(key(needle, i));
+            if (p == null) return out;
+            if (shortest == null || p.size < shortest.size) shortest = p;
+        }
+        for (int i = 0; i < shortest.size; i++) {
+            if ((i & 0xFFF) == 0 && Thread.currentThread().isInterrupted()) return null;
+            int doc = shortest.ids[i];
+            if (allowed.get(doc) && texts.get(doc).contains(needle)) out.set(doc);
+        }
+        return out;
+    }
+
+    // Same order as StudentQuery.orderBy(): nulls sort as '' / 0, ties broken by student_id.
+    static Comparator<StudentDisplayRecord> comparator(StudentQuery q) {
+        Comparator<StudentDisplayRecord> c = switch (q.sortColumn) {
+            case 1 -> Comparator.comparing(r -> nz(r.name));
+            case 2 -> Comparator.comparing(r -> nz(r.major));
+            case 3 -> Comparator.comparingInt(r -> r.year);
+            case 4 -> Comparator.comparing(r -> nz(r.classroomName));
+            case 5 -> Comparator.comparing(r -> r.status.name());
+            case 6 -> Comparator.comparingDouble(r -> r.gpa);
+            case 7 -> Comparator.comparing(r -> nz(r.email));
+            case 8 -> Comparator.comparing(r -> nz(r.phone));
+            case 9 -> Comparator.comparing(r -> nz(r.dateAdded));
+            case 10 -> Comparator.comparing(r -> nz(r.homeroomTeacherName));
+            default -> BY_ID;
+        };
+        if (q.sortColumn != 0) c = c.thenComparing(BY_ID);
+        return q.ascending ? c : c.reversed();
+    }
+
+    private static String nz(String s) {
+        return s != null ? s : "";
+    }
+
+    private void onChange(DataChange change) {
+        switch (change.type) {
+            case STUDENT -> worker.submit(() -> {
+                if (change.isBulk()) {
+                    rebuild();
+                } else if (change.kind == ChangeKind.DELETED) {
+                    apply(change.id, null);
+                } else {
+                    apply(change.id, db.getStudentDisplayRecord(change.id));
+                }
+            });
+            case CLASSROOM -> {
+                if (change.kind != ChangeKind.INSERTED) worker.submit(this::rebuild);
+            }
+            default -> { }
+        }
+    }
+
+    private void rebuild() {
+        ArrayList<StudentDisplayRecord> records = db.getAllStudentsForDisplay();
+        lock.writeLock().lock();
+        try {
+            docs = new ArrayList<>(records.size());
+            texts = new ArrayList<>(records.size());
+            docById = new HashMap<>(records.size() * 2);
+            trigrams = new HashMap<>();
+            byYear = new HashMap<>();
+            byClassroom = new HashMap<>();
+            live = new BitSet(records.size());
+            for (StudentDisplayRecord r : records) {
+                add(r);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        ready = true;
+        fire();
+    }
+
+    private void apply(String studentId, StudentDisplayRecord record) {
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            Integer old = docById.remove(studentId);
+            if (old != null) remove(old);
+            if (record != null) add(record);
+            compact = docs.size() > 1000 && live.cardinality() < docs.size() * 3 / 4;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (compact) {
+            rebuild();
+        } else {
+            fire();
+        }
+    }
+
+    private void add(StudentDisplayRecord r) {
+        int doc = docs.size();
+        String text = searchText(r);
+        docs.add(r);
+        texts.add(text);
+        docById.put(r.id, doc);
+        live.set(doc);
+        byYear.computeIfAbsent(r.year, k -> new BitSet()).set(doc);
+        if (r.classroomId != null) byClassroom.computeIfAbsent(r.classroomId, k -> new BitSet()).set(doc);
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            int sep = text.indexOf(FIELD_SEPARATOR, i);
+            if (sep >= 0 && sep < i + 3) continue;
+            trigrams.computeIfAbsent(key(text, i), k -> new Postings()).add(doc);
+        }
+    }
+
+    // Postings keep the dead doc; it is filtered by the live set and dropped on the next rebuild.
+    private void remove(int doc) {
+        StudentDisplayRecord r = docs.get(doc);
+        live.clear(doc);
+        BitSet year = byYear.get(r.year);
+        if (year != null) year.clear(doc);
+        if (r.classroomId != null) {
+            BitSet room = byClassroom.get(r.classroomId);
+            if (room != null) room.clear(doc);
+        }
+        docs.set(doc, null);
+        texts.set(doc, "");
+    }
+
+    private static String searchText(StudentDisplayRecord r) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : new String[]{r.id, r.name, r.major, r.classroomName, r.email, r.homeroomTeacherName}) {
+            if (field == null) continue;
+            if (sb.length() > 0) sb.append(FIELD_SEPARATOR);
+            sb.append(field.toLowerCase(Locale.ROOT));
+        }
+        return sb.toString();
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private void fire() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    // Sorted doc numbers; docs are only ever appended, so add() keeps the order.
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int doc) {
+            if (size > 0 && ids[size - 1] == doc) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = doc;
+        }
+    }
+}
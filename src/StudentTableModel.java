@@ -0,0 +1,311 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for the main student list that only holds the pages the table
+ * has actually asked for. Pages are fetched off the EDT with keyset pagination
+ * and kept in a small LRU cache; sorting and filtering are done by SQL through
+ * StudentQuery. All state is owned by the EDT; loader results are applied with
+ * invokeLater and dropped if the query changed in the meantime.
+ *
+ * Text searches are answered by the StudentSearchIndex once it is built; the
+ * whole match list is then held in memory and the SQL paging is bypassed.
+ */
+class StudentTableModel extends AbstractTableModel {
+
+    static final String[] COLUMNS = {"ID", "Name", "Major", "Year", "Classroom", "Status", "GPA", "Email", "Phone", "Date Added", "Homeroom Teacher"};
+    static final int PAGE_SIZE = 200;
+    static final int MAX_CACHED_PAGES = 40;
+
+    private final DatabaseManager db;
+    private final StudentSearchIndex index;
+    private final Runnable indexListener = () -> SwingUtilities.invokeLater(this::onIndexChanged);
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "student-page-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private StudentQuery query = new StudentQuery();
+    private int rowCount = 0;
+    private int generation = 0;
+    // bumped when rows shift, so page loads started before the shift are discarded
+    private int pageEpoch = 0;
+    // non-null while a text search is served from the index
+    private List<StudentDisplayRecord> matches;
+    // the count or search for the latest query; cancelled when a newer query replaces it
+    private Future<?> pendingReload;
+
+    private final Map<Integer, List<StudentDisplayRecord>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<StudentDisplayRecord>> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // page number -> sort key of the last row of the previous page
+    private final Map<Integer, Object[]> pageStartKeys = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    StudentTableModel(DatabaseManager db, StudentSearchIndex index) {
+        this.db = db;
+        this.index = index;
+        index.addListener(indexListener);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        if (column != query.sortColumn) return COLUMNS[column];
+        return COLUMNS[column] + (query.ascending ? " ▲" : " ▼");
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return switch (column) {
+            case 3 -> Integer.class;
+            case 6 -> Double.class;
+            default -> String.class;
+        };
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        if (matches != null) {
+            return row < matches.size() ? valueOf(matches.get(row), column) : null;
+        }
+        List<StudentDisplayRecord> page = pages.get(row / PAGE_SIZE);
+        if (page == null) {
+            requestPage(row / PAGE_SIZE);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        if (index >= page.size()) return null;
+        return valueOf(page.get(index), column);
+    }
+
+    /** Loads the row synchronously if its page is not cached; for actions on the selected row. */
+    StudentDisplayRecord getRecordAt(int row) {
+        if (row < 0 || row >= rowCount) return null;
+        if (matches != null) return row < matches.size() ? matches.get(row) : null;
+        int pageNo = row / PAGE_SIZE;
+        List<StudentDisplayRecord> page = pages.get(pageNo);
+        if (page == null) {
+            Object[] after = pageNo == 0 ? null : pageStartKeys.get(pageNo);
+            if (pageNo > 0 && after == null) after = db.getStudentDisplayKeyAt(query, pageNo * PAGE_SIZE - 1);
+            StudentPage loaded = db.getStudentDisplayPage(query, after, PAGE_SIZE);
+            storePage(pageNo, loaded);
+            page = loaded.rows;
+        }
+        int index = row % PAGE_SIZE;
+        return index < page.size() ? page.get(index) : null;
+    }
+
+    StudentQuery getQuery() {
+        return query;
+    }
+
+    void setFilter(String text, Integer year, String classroomId) {
+        StudentQuery next = query.withFilter(text, year, classroomId);
+        if (next.sameFilter(query)) return;
+        query = next;
+        reload();
+    }
+
+    void toggleSort(int column) {
+        boolean asc = column != query.sortColumn || !query.ascending;
+        query = query.withSort(column, asc);
+        reload();
+    }
+
+    /** Drops every cached page and recounts; rows are fetched again as the table paints them. */
+    void reload() {
+        int gen = ++generation;
+        pages.clear();
+        pageStartKeys.clear();
+        loading.clear();
+        StudentQuery q = query;
+        if (pendingReload != null) pendingReload.cancel(true);
+        if (q.text != null && index.isReady()) {
+            // keep showing the previous matches until the new ones are in, so typing does not flicker
+            pendingReload = loader.submit(() -> {
+                List<StudentDisplayRecord> found = index.search(q);
+                if (found == null) return;
+                SwingUtilities.invokeLater(() -> {
+                    if (gen != generation) return;
+                    matches = found;
+                    rowCount = found.size();
+                    fireTableDataChanged();
+                });
+            });
+            return;
+        }
+        matches = null;
+        pendingReload = loader.submit(() -> {
+            int count = db.countStudentsForDisplay(q);
+            if (Thread.currentThread().isInterrupted()) return;
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation) return;
+                rowCount = count;
+                fireTableDataChanged();
+            });
+        });
+        fireTableDataChanged();
+    }
+
+    /**
+     * Applies one committed change without reloading the table: updates replace
+     * the cached row in place (a row that moved under the sort reloads, one that
+     * left the filter is removed), inserts and deletes shift the row count and
+     * drop only the cached pages at or after the affected position.
+     */
+    void applyChange(String studentId, ChangeKind kind) {
+        // index-backed searches are re-run from onIndexChanged once the index has the change
+        if (matches != null) return;
+        switch (kind) {
+            case UPDATED -> {
+                if (findCachedRow(studentId) < 0) return;
+                int gen = generation;
+                StudentQuery q = query;
+                loader.submit(() -> {
+                    StudentDisplayRecord fresh = db.getStudentDisplayRecord(studentId);
+                    // -1 once the student no longer passes the filter; another row if the sort key moved
+                    int position = fresh == null ? -1 : db.getStudentDisplayPosition(q, studentId);
+                    SwingUtilities.invokeLater(() -> {
+                        if (gen != generation) return;
+                        int row = findCachedRow(studentId);
+                        if (row < 0) return;
+                        if (fresh == null || position < 0) {
+                            removeRow(row);
+                        } else if (position != row) {
+                            reload();
+                        } else {
+                            pages.get(row / PAGE_SIZE).set(row % PAGE_SIZE, fresh);
+                            // the next page starts after this row's sort key, which may have changed
+                            if (row % PAGE_SIZE == PAGE_SIZE - 1) pageStartKeys.remove(row / PAGE_SIZE + 1);
+                            fireTableRowsUpdated(row, row);
+                        }
+                    });
+                });
+            }
+            case DELETED -> {
+                int row = findCachedRow(studentId);
+                if (row < 0) {
+                    reload();
+                } else {
+                    removeRow(row);
+                }
+            }
+            case INSERTED -> {
+                int gen = generation;
+                StudentQuery q = query;
+                loader.submit(() -> {
+                    int position = db.getStudentDisplayPosition(q, studentId);
+                    SwingUtilities.invokeLater(() -> {
+                        if (gen != generation || position < 0 || position > rowCount) return;
+                        invalidateFrom(position / PAGE_SIZE);
+                        rowCount++;
+                        fireTableRowsInserted(position, position);
+                    });
+                });
+            }
+            case BULK -> reload();
+        }
+    }
+
+    void dispose() {
+        index.removeListener(indexListener);
+        loader.shutdownNow();
+    }
+
+    private void onIndexChanged() {
+        if (query.text != null) reload();
+    }
+
+    private int findCachedRow(String studentId) {
+        for (Map.Entry<Integer, List<StudentDisplayRecord>> e : pages.entrySet()) {
+            List<StudentDisplayRecord> page = e.getValue();
+            for (int i = 0; i < page.size(); i++) {
+                if (page.get(i).id.equals(studentId)) return e.getKey() * PAGE_SIZE + i;
+            }
+        }
+        return -1;
+    }
+
+    private void removeRow(int row) {
+        int pageNo = row / PAGE_SIZE;
+        invalidateFrom(pageNo);
+        rowCount = Math.max(0, rowCount - 1);
+        fireTableRowsDeleted(row, row);
+    }
+
+    // Rows before the page are unaffected, so its start key stays valid; everything after shifts by one.
+    private void invalidateFrom(int pageNo) {
+        pages.keySet().removeIf(p -> p >= pageNo);
+        pageStartKeys.keySet().removeIf(p -> p > pageNo);
+        loading.clear();
+        pageEpoch++;
+    }
+
+    private void requestPage(int pageNo) {
+        if (!loading.add(pageNo)) return;
+        int gen = generation;
+        int epoch = pageEpoch;
+        StudentQuery q = query;
+        Object[] knownStart = pageStartKeys.get(pageNo);
+        loader.submit(() -> {
+            Object[] after = knownStart;
+            if (pageNo > 0 && after == null) {
+                after = db.getStudentDisplayKeyAt(q, pageNo * PAGE_SIZE - 1);
+            }
+            StudentPage page = db.getStudentDisplayPage(q, after, PAGE_SIZE);
+            SwingUtilities.invokeLater(() -> {
+                if (gen != generation || epoch != pageEpoch) return;
+                loading.remove(pageNo);
+                storePage(pageNo, page);
+                int first = pageNo * PAGE_SIZE;
+                int last = Math.min(rowCount, first + PAGE_SIZE) - 1;
+                if (last >= first) fireTableRowsUpdated(first, last);
+            });
+        });
+    }
+
+    private void storePage(int pageNo, StudentPage page) {
+        pages.put(pageNo, page.rows);
+        if (page.lastKey != null) pageStartKeys.put(pageNo + 1, page.lastKey);
+    }
+
+    private static Object valueOf(StudentDisplayRecord s, int column) {
+        return switch (column) {
+            case 0 -> s.id;
+            case 1 -> s.name;
+            case 2 -> s.major;
+            case 3 -> s.year;
+            case 4 -> s.classroomName != null ? s.classroomName : "N/A";
+            case 5 -> s.status.name();
+            case 6 -> s.gpa;
+            case 7 -> s.email;
+            case 8 -> s.phone;
+            case 9 -> s.dateAdded;
+            case 10 -> s.homeroomTeacherName != null ? s.homeroomTeacherName : "N/A";
+            default -> null;
+        };
+    }
+}
@@ -0,0 +1,449 @@
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+import org.mindrot.jbcrypt.BCrypt;
+
+/** How much of everything to generate; forStudents() derives the rest from the student count. */
+class SyntheticScale {
+    int students;
+    int teachers;
+    int classrooms;
+    int subjectsPerMajor = 40;
+    int enrollmentsPerStudent = 6;
+    int assignmentsPerEnrollment = 3;
+    int billedSemesters = 1;
+    int activityLogs;
+
+    static SyntheticScale forStudents(int students) {
+        SyntheticScale s = new SyntheticScale();
+        s.students = students;
+        s.teachers = Math.max(10, students / 100);
+        s.classrooms = Math.max(4, students / 40);
+        s.activityLogs = students * 2;
+        return s;
+    }
+}
+
+class GenerationReport {
+    final Map<String, Integer> rows = new LinkedHashMap<>();
+    long elapsedMillis;
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        rows.forEach((table, n) -> sb.append(String.format("  %-20s %,12d%n", table, n)));
+        sb.append(String.format("  %-20s %,10d ms", "elapsed", elapsedMillis));
+        return sb.toString();
+    }
+}
+
+/**
+ * Fills an empty database with a reproducible, production-sized data set: the
+ * same seed and scale always give the same rows. Secondary indexes are dropped
+ * before loading and rebuilt once at the end, rows go in as batched prepared
+ * inserts with an in-memory journal, and everybody shares one BCrypt hash (password
+ * "password"), so 100k students take seconds rather than hours.
+ *
+ * GPA totals are filled in afterwards with the same SQL the app uses
+ * (DatabaseManager.RECOMPUTE_GPA_TOTALS_SQL), so they always agree with it.
+ *
+ * Usage: java SyntheticDataGenerator target.db [--students N] [--seed S] [--teachers N]
+ *        [--classrooms N] [--subjects-per-major N] [--enrollments N] [--billed-semesters N]
+ *        [--logs N] [--force]
+ */
+class SyntheticDataGenerator {
+
+    static final String SHARED_PASSWORD = "password";
+    static final long DEFAULT_SEED = 20240601L;
+
+    private static final int BATCH_SIZE = 5000;
+    private static final double TUITION = 30000;
+
+    private static final String[] MAJORS = {"CS", "TH", "BUS", "ENG"};
+    private static final String[] MAJOR_NAMES = {"Computer Science", "Thai Language Dept.", "Business", "Engineering"};
+    private static final String[] SEMESTERS = {"Y1T1", "Y1T2", "Y2T1", "Y2T2"};
+    private static final String[] SEMESTER_NAMES = {"Year 1, Term 1", "Year 1, Term 2", "Year 2, Term 1", "Year 2, Term 2"};
+    // weighted: mostly passing grades, some withdrawals and courses still in progress
+    private static final String[] GRADES = {"A", "A", "B+", "B+", "B", "B", "B", "C+", "C+", "C", "C", "D+", "D", "F", "W", "N/A", "N/A"};
+    private static final String[] STATUSES = {"ENROLLED", "ENROLLED", "ENROLLED", "ENROLLED", "ENROLLED", "ENROLLED", "GRADUATED", "ON_LEAVE", "DROPPED"};
+    private static final String[] FIRST_NAMES = {"Somchai", "Suda", "Anan", "Malee", "Niran", "Pim", "Krit", "Ploy", "Arthit", "Kanya",
+                                                 "Wichai", "Nok", "Preecha", "Dao", "Thana", "Fah"};
+    private static final String[] LAST_NAMES = {"Srisuk", "Wongsa", "Chaiyo", "Boonmee", "Thongdee", "Rattana", "Saelim", "Phromma",
+                                                "Kaewkla", "Suwan", "Intharak", "Jaidee"};
+    private static final String[] DAYS = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
+    private static final String[] PAYMENT_METHODS = {"Bank Transfer", "Cash", "Credit Card", "QR PromptPay"};
+    // fixed clock so the dates do not depend on when the generator runs
+    private static final long BASE_TIME = 1717200000000L; // 2024-06-01 00:00 UTC
+
+    private final SyntheticScale scale;
+    private final long seed;
+    private final SimpleDateFormat dateFormat = utc("yyyy-MM-dd");
+    private final SimpleDateFormat timeFormat = utc("yyyy-MM-dd HH:mm:ss");
+
+    SyntheticDataGenerator(SyntheticScale scale, long seed) {
+        this.scale = scale;
+        this.seed = seed;
+    }
+
+    /** Creates the schema if needed and fills it; the database must not contain students yet. */
+    GenerationReport generateInto(File file) throws SQLException {
+        long start = System.currentTimeMillis();
+        GenerationReport report = new GenerationReport();
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath())) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("PRAGMA journal_mode = MEMORY");
+                stmt.execute("PRAGMA synchronous = OFF");
+                stmt.execute("PRAGMA cache_size = -262144");
+                stmt.execute("PRAGMA temp_store = MEMORY");
+            }
+            SchemaMigrator.migrate(conn);
+            try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM students")) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    throw new SQLException(file + " already has students; generate into a new file");
+                }
+            }
+
+            List<String> indexes = dropSecondaryIndexes(conn);
+            conn.setAutoCommit(false);
+            try {
+                load(conn, new Random(seed), report);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : indexes) {
+                    stmt.execute(sql);
+                }
+                stmt.execute(DatabaseManager.RECOMPUTE_GPA_TOTALS_SQL);
+                stmt.execute(DatabaseManager.RECOMPUTE_GPA_SQL);
+                stmt.execute("ANALYZE");
+                // leave a single self-contained file; the app switches to its own journal mode on open
+                stmt.execute("PRAGMA journal_mode = DELETE");
+            }
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private static List<String> dropSecondaryIndexes(Connection conn) throws SQLException {
+        List<String> names = new ArrayList<>();
+        List<String> definitions = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name, sql FROM sqlite_master WHERE type = 'index' AND sql IS NOT NULL")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+                definitions.add(rs.getString(2));
+            }
+        }
+        try (Statement stmt = conn.createStatement()) {
+            for (String name : names) {
+                stmt.execute("DROP INDEX \"" + name + "\"");
+            }
+        }
+        return definitions;
+    }
+
+    private void load(Connection conn, Random rnd, GenerationReport report) throws SQLException {
+        String hash = BCrypt.hashpw(SHARED_PASSWORD, BCrypt.gensalt(10, saltRandom(seed)));
+        int subjectCount = MAJORS.length * scale.subjectsPerMajor;
+
+        Batch users = new Batch(conn, "INSERT INTO users(username, password_hash, role) VALUES (?, ?, ?)");
+        users.add("admin", hash, "ADMIN");
+        for (int t = 0; t < scale.teachers; t++) users.add(teacherId(t), hash, "TEACHER");
+        for (int s = 0; s < scale.students; s++) users.add(studentId(s), hash, "STUDENT");
+        report.rows.put("users", users.finish());
+
+        Batch majors = new Batch(conn, "INSERT INTO majors(major_id, major_name) VALUES (?, ?)");
+        for (int i = 0; i < MAJORS.length; i++) majors.add(MAJORS[i], MAJOR_NAMES[i]);
+        report.rows.put("majors", majors.finish());
+        Batch semesters = new Batch(conn, "INSERT INTO semesters(semester_id, semester_name) VALUES (?, ?)");
+        for (int i = 0; i < SEMESTERS.length; i++) semesters.add(SEMESTERS[i], SEMESTER_NAMES[i]);
+        report.rows.put("semesters", semesters.finish());
+
+        Batch teachers = new Batch(conn, "INSERT INTO teachers(teacher_id, name, email, office) VALUES (?, ?, ?, ?)");
+        for (int t = 0; t < scale.teachers; t++) {
+            teachers.add(teacherId(t), "Aj. " + name(rnd), teacherId(t).toLowerCase() + "@uni.ac.th", "B" + (1 + t % 5) + "-" + (100 + t));
+        }
+        report.rows.put("teachers", teachers.finish());
+
+        Batch classrooms = new Batch(conn, "INSERT INTO classrooms(classroom_id, classroom_name, teacher_id, major_id, classroom_type) VALUES (?, ?, ?, ?, ?)");
+        for (int c = 0; c < scale.classrooms; c++) {
+            String type = (c % 10 == 9 ? ClassroomType.COMPUTER_LAB : ClassroomType.NORMAL).name();
+            classrooms.add(classroomId(c), MAJORS[c % MAJORS.length] + " Room " + (c + 1), teacherId(c % scale.teachers), MAJORS[c % MAJORS.length], type);
+        }
+        report.rows.put("classrooms", classrooms.finish());
+
+        Batch subjects = new Batch(conn, "INSERT INTO subjects(subject_id, subject_name, credits, major_id, semester_id) VALUES (?, ?, ?, ?, ?)");
+        Batch prerequisites = new Batch(conn, "INSERT INTO prerequisites(subject_id, prerequisite_subject_id) VALUES (?, ?)");
+        Batch assignments = new Batch(conn, "INSERT INTO teaching_assignments(teacher_id, subject_id, room, schedule_day, schedule_time) VALUES (?, ?, ?, ?, ?)");
+        for (int i = 0; i < subjectCount; i++) {
+            int major = i / scale.subjectsPerMajor;
+            int local = i % scale.subjectsPerMajor;
+            subjects.add(subjectId(i), MAJOR_NAMES[major] + " " + (101 + local), 1 + rnd.nextInt(4), MAJORS[major], SEMESTERS[local % SEMESTERS.length]);
+            // up to two earlier courses of the same major, so the graph has no cycles
+            if (local >= 4) {
+                int first = major * scale.subjectsPerMajor + rnd.nextInt(local);
+                prerequisites.add(subjectId(i), subjectId(first));
+                if (rnd.nextInt(3) == 0) {
+                    int second = major * scale.subjectsPerMajor + rnd.nextInt(local);
+                    if (second != first) prerequisites.add(subjectId(i), subjectId(second));
+                }
+            }
+            int hour = 8 + rnd.nextInt(8);
+            assignments.add(teacherId(rnd.nextInt(scale.teachers)), subjectId(i), "R" + (100 + rnd.nextInt(60)),
+                    DAYS[rnd.nextInt(DAYS.length)], String.format("%02d:00-%02d:00", hour, hour + 2));
+        }
+        report.rows.put("subjects", subjects.finish());
+        report.rows.put("prerequisites", prerequisites.finish());
+        report.rows.put("teaching_assignments", assignments.finish());
+
+        Batch students = new Batch(conn,
+                "INSERT INTO students(student_id, name, address, phone, email, photoPath, age, gpa, year, status, major, dateAdded, classroom_id) " +
+                "VALUES (?, ?, ?, ?, ?, NULL, ?, 0, ?, ?, ?, ?, ?)");
+        // enrollment ids are assigned here so assignment_grades can refer to them without reading back
+        Batch enrollments = new Batch(conn, "INSERT INTO enrollments(enrollment_id, student_id, subject_id, grade) VALUES (?, ?, ?, ?)");
+        Batch grades = new Batch(conn, "INSERT INTO assignment_grades(enrollment_id, assignment_name, score, max_score, date_recorded) VALUES (?, ?, ?, 100, ?)");
+        Batch invoices = new Batch(conn,
+                "INSERT INTO Invoices(invoice_id, student_id, semester_id, issue_date, due_date, total_amount, status, amount_paid, balance) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        Batch items = new Batch(conn, "INSERT INTO InvoiceItems(invoice_id, description, amount) VALUES (?, ?, ?)");
+        Batch payments = new Batch(conn,
+                "INSERT INTO Transactions(invoice_id, student_id, payment_date, amount_paid, payment_method, reference_code) VALUES (?, ?, ?, ?, ?, ?)");
+
+        int[] pool = new int[scale.subjectsPerMajor];
+        int enrollmentId = 0;
+        int invoiceId = 0;
+        int perStudent = Math.min(scale.enrollmentsPerStudent, scale.subjectsPerMajor);
+        int billed = Math.min(scale.billedSemesters, SEMESTERS.length);
+        for (int s = 0; s < scale.students; s++) {
+            String id = studentId(s);
+            int classroom = rnd.nextInt(scale.classrooms);
+            int major = classroom % MAJORS.length;
+            int year = 1 + rnd.nextInt(4);
+            String status = STATUSES[rnd.nextInt(STATUSES.length)];
+            students.add(id, name(rnd), (1 + rnd.nextInt(999)) + " Sukhumvit Rd, Bangkok",
+                    String.format("08%08d", rnd.nextInt(100_000_000)), id.toLowerCase() + "@student.uni.ac.th",
+                    17 + year + rnd.nextInt(4), year, status, MAJORS[major], date(-365L * year + rnd.nextInt(60)),
+                    classroomId(classroom));
+
+            // distinct courses of the student's major (partial Fisher-Yates)
+            for (int i = 0; i < pool.length; i++) pool[i] = i;
+            for (int e = 0; e < perStudent; e++) {
+                int pick = e + rnd.nextInt(pool.length - e);
+                int local = pool[pick];
+                pool[pick] = pool[e];
+                pool[e] = local;
+                String grade = GRADES[rnd.nextInt(GRADES.length)];
+                enrollmentId++;
+                enrollments.add(enrollmentId, id, subjectId(major * scale.subjectsPerMajor + local), grade);
+                if (!grade.equals("W")) {
+                    for (int a = 1; a <= scale.assignmentsPerEnrollment; a++) {
+                        grades.add(enrollmentId, "Assignment " + a, (double) (40 + rnd.nextInt(61)), date(-rnd.nextInt(120)));
+                    }
+                }
+            }
+
+            for (int b = 0; b < billed; b++) {
+                invoiceId++;
+                double total = TUITION + (rnd.nextInt(4) == 0 ? 2500 : 0);
+                int outcome = rnd.nextInt(10);
+                double paid = outcome < 5 ? total : outcome < 7 ? Math.round(total / 2) : 0;
+                invoices.add(invoiceId, id, SEMESTERS[b], date(-150 + 120L * b), date(-120 + 120L * b), total,
+                        paid >= total ? "PAID" : "PENDING", paid, total - paid);
+                items.add(invoiceId, "Base Tuition Fee - Semester " + SEMESTERS[b], TUITION);
+                if (total > TUITION) items.add(invoiceId, "Laboratory Fee", total - TUITION);
+                if (paid > 0) {
+                    // full payments sometimes arrive in two instalments
+                    boolean split = paid == total && rnd.nextInt(3) == 0;
+                    double first = split ? Math.round(paid / 2) : paid;
+                    payments.add(invoiceId, id, time(-140 + 120L * b, rnd), first, PAYMENT_METHODS[rnd.nextInt(PAYMENT_METHODS.length)], "REF" + invoiceId + "A");
+                    if (split) {
+                        payments.add(invoiceId, id, time(-125 + 120L * b, rnd), paid - first, PAYMENT_METHODS[rnd.nextInt(PAYMENT_METHODS.length)], "REF" + invoiceId + "B");
+                    }
+                }
+            }
+        }
+        report.rows.put("students", students.finish());
+        report.rows.put("enrollments", enrollments.finish());
+        report.rows.put("assignment_grades", grades.finish());
+        report.rows.put("Invoices", invoices.finish());
+        report.rows.put("InvoiceItems", items.finish());
+        report.rows.put("Transactions", payments.finish());
+
+        Batch logs = new Batch(conn, "INSERT INTO activity_log(log_timestamp, username, action_description) VALUES (?, ?, ?)");
+        long clock = BASE_TIME - 180L * 86_400_000L;
+        for (int i = 0; i < scale.activityLogs; i++) {
+            clock += 1000L * (1 + rnd.nextInt(600));
+            boolean admin = rnd.nextInt(4) == 0;
+            String user = admin ? "admin" : teacherId(rnd.nextInt(scale.teachers));
+            String action = switch (rnd.nextInt(5)) {
+                case 0 -> "Logged in";
+                case 1 -> "Updated student " + studentId(rnd.nextInt(Math.max(1, scale.students)));
+                case 2 -> "Updated grade for enrollment #" + (1 + rnd.nextInt(Math.max(1, enrollmentId)));
+                case 3 -> "Viewed finance summary";
+                default -> admin ? "Recorded payment for invoice #" + (1 + rnd.nextInt(Math.max(1, invoiceId))) : "Opened course list";
+            };
+            logs.add(timeFormat.format(new Date(clock)), user, action);
+        }
+        report.rows.put("activity_log", logs.finish());
+    }
+
+    private String date(long daysFromBase) {
+        return dateFormat.format(new Date(BASE_TIME + daysFromBase * 86_400_000L));
+    }
+
+    // SHA1PRNG seeded before its first use is deterministic, so the same seed gives the same password hash
+    private static SecureRandom saltRandom(long seed) {
+        try {
+            SecureRandom random = SecureRandom.getInstance("SHA1PRNG");
+            random.setSeed(ByteBuffer.allocate(Long.BYTES).putLong(seed).array());
+            return random;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String time(long daysFromBase, Random rnd) {
+        return timeFormat.format(new Date(BASE_TIME + daysFromBase * 86_400_000L + rnd.nextInt(86_400) * 1000L));
+    }
+
+    static String studentId(int n) {
+        return String.format("S%07d", n);
+    }
+
+    static String teacherId(int n) {
+        return String.format("T%04d", n);
+    }
+
+    static String classroomId(int n) {
+        return String.format("C%04d", n);
+    }
+
+    static String subjectId(int n) {
+        return String.format("SUB%04d", n);
+    }
+
+    private static String name(Random rnd) {
+        return FIRST_NAMES[rnd.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[rnd.nextInt(LAST_NAMES.length)];
+    }
+
+    private static SimpleDateFormat utc(String pattern) {
+        SimpleDateFormat f = new SimpleDateFormat(pattern);
+        f.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return f;
+    }
+
+    // One prepared insert, flushed every BATCH_SIZE rows.
+    private static class Batch {
+        private final PreparedStatement pstmt;
+        private int pending = 0;
+        private int total = 0;
+
+        Batch(Connection conn, String sql) throws SQLException {
+            this.pstmt = conn.prepareStatement(sql);
+        }
+
+        void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                pstmt.setObject(i + 1, values[i]);
+            }
+            pstmt.addBatch();
+            total++;
+            if (++pending == BATCH_SIZE) {
+                pstmt.executeBatch();
+                pending = 0;
+            }
+        }
+
+        int finish() throws SQLException {
+            try {
+                if (pending > 0) pstmt.executeBatch();
+            } finally {
+                pstmt.close();
+            }
+            return total;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println("Usage: java SyntheticDataGenerator target.db [--students N] [--seed S] [--teachers N] [--classrooms N]");
+            System.err.println("       [--subjects-per-major N] [--enrollments N] [--billed-semesters N] [--logs N] [--force]");
+            System.exit(2);
+        }
+        File target = new File(args[0]);
+        Map<String, String> options = new LinkedHashMap<>();
+        boolean force = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--force")) {
+                force = true;
+            } else if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i], args[++i]);
+            } else {
+                System.err.println("Unexpected argument " + args[i]);
+                System.exit(2);
+            }
+        }
+
+        SyntheticScale scale;
+        long seed;
+        try {
+            scale = SyntheticScale.forStudents(Integer.parseInt(options.getOrDefault("--students", "10000")));
+            seed = Long.parseLong(options.getOrDefault("--seed", String.valueOf(DEFAULT_SEED)));
+            for (Map.Entry<String, String> option : options.entrySet()) {
+                int value = option.getKey().equals("--seed") ? 0 : Integer.parseInt(option.getValue());
+                switch (option.getKey()) {
+                    case "--students", "--seed" -> { }
+                    case "--teachers" -> scale.teachers = Math.max(1, value);
+                    case "--classrooms" -> scale.classrooms = Math.max(1, value);
+                    case "--subjects-per-major" -> scale.subjectsPerMajor = Math.max(1, value);
+                    case "--enrollments" -> scale.enrollmentsPerStudent = value;
+                    case "--billed-semesters" -> scale.billedSemesters = value;
+                    case "--logs" -> scale.activityLogs = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + option.getKey());
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        if (target.exists()) {
+            if (!force) {
+                System.err.println(target + " exists; use --force to replace it");
+                System.exit(1);
+            }
+            for (String suffix : new String[]{"", "-wal", "-shm", "-journal"}) {
+                new File(target.getPath() + suffix).delete();
+            }
+        }
+        try {
+            GenerationReport report = new SyntheticDataGenerator(scale, seed).generateInto(target);
+            System.out.println("Generated " + target + " (seed " + seed + ", password '" + SHARED_PASSWORD + "' for every account)");
+            System.out.println(report);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -27,6 +27,7 @@ public class TeacherPortalGUI extends JFrame {
 
     private String currentUsername;
     private DatabaseManager dbManager;
+    private AsyncDao dao;
     private Teacher currentTeacher;
     private DefaultTableModel homeroomModel;
     private JTable homeroomTable;
@@ -41,7 +42,9 @@ public class TeacherPortalGUI extends JFrame {
     public TeacherPortalGUI(Role role, String username) {
         this.currentUsername = username;
         this.dbManager = new DatabaseManager();
+        this.dao = new AsyncDao(dbManager);
 
+        // needed for the title, so it is read before the window opens
         this.currentTeacher = dbManager.getTeacherById(this.currentUsername);
         
         setTitle("👨‍🏫 Teacher Portal (Welcome: " + (currentTeacher != null ? currentTeacher.name : username) + ")");
@@ -113,29 +116,31 @@ public class TeacherPortalGUI extends JFrame {
     }
     
     private void loadTeacherCourses() {
-        gradebookCourseModel.setRowCount(0);
-        teacherSubjects = dbManager.getSubjectsForTeacher(this.currentUsername); 
-        
-        for (Subject s : teacherSubjects) {
-            gradebookCourseModel.addRow(new Object[]{
-                s.id,
-                s.name,
-                s.semesterName
-            });
-        }
+        dao.load(this, gradebookCourseModel, db -> db.getSubjectsForTeacher(currentUsername), subjects -> {
+            teacherSubjects = subjects;
+            gradebookCourseModel.setRowCount(0);
+            for (Subject s : teacherSubjects) {
+                gradebookCourseModel.addRow(new Object[]{
+                    s.id,
+                    s.name,
+                    s.semesterName
+                });
+            }
+        });
     }
 
     private void loadStudentsForCourse(String subjectId) {
-        gradebookStudentModel.setRowCount(0);
-        currentSubjectEnrollments = dbManager.getEnrollmentsForSubject(subjectId);
-        
-        for (EnrollmentRecord er : currentSubjectEnrollments) {
-            gradebookStudentModel.addRow(new Object[]{
-                er.studentId,
-                er.studentName,
-                er.grade
-            });
-        }
+        dao.load(this, gradebookStudentModel, db -> db.getEnrollmentsForSubject(subjectId), enrollments -> {
+            currentSubjectEnrollments = enrollments;
+            gradebookStudentModel.setRowCount(0);
+            for (EnrollmentRecord er : currentSubjectEnrollments) {
+                gradebookStudentModel.addRow(new Object[]{
+                    er.studentId,
+                    er.studentName,
+                    er.grade
+                });
+            }
+        });
     }
     
     private void openGradeManagementDialog() {
@@ -160,8 +165,8 @@ public class TeacherPortalGUI extends JFrame {
         );
         dialog.setVisible(true);
 
-        dbManager.calculateAndUpdatStudentGPA(selectedEnrollment.studentId);
-        loadStudentsForCourse(selectedSubject.id);
+        dao.submit(this, db -> db.calculateAndUpdatStudentGPA(selectedEnrollment.studentId),
+                gpa -> loadStudentsForCourse(selectedSubject.id));
     }
 
     private JPanel createHomeroomTab() {
@@ -206,16 +211,16 @@ public class TeacherPortalGUI extends JFrame {
                 return;
             }
             
-            boolean success = dbManager.submitLeaveRequest(this.currentUsername, start, end, reason);
-            
-            if (success) {
-                JOptionPane.showMessageDialog(this, "Leave request submitted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                startDateField.setText("");
-                endDateField.setText("");
-                reasonArea.setText("");
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to submit request.", "Database Error", JOptionPane.ERROR_MESSAGE);
-            }
+            dao.submit(this, db -> db.submitLeaveRequest(currentUsername, start, end, reason), success -> {
+                if (success) {
+                    JOptionPane.showMessageDialog(this, "Leave request submitted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
+                    startDateField.setText("");
+                    endDateField.setText("");
+                    reasonArea.setText("");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Failed to submit request.", "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+            });
         });
 
         panel.add(formPanel, BorderLayout.NORTH);
@@ -224,13 +229,14 @@ public class TeacherPortalGUI extends JFrame {
     }
 
     private void loadHomeroomStudents() {
-        homeroomModel.setRowCount(0);
-        ArrayList<Student> students = dbManager.getHomeroomStudents(this.currentUsername);
-        for (Student s : students) {
-            homeroomModel.addRow(new Object[]{
-                s.id, s.name, s.major, s.year, s.gpa, s.status.name()
-            });
-        }
+        dao.load(this, homeroomModel, db -> db.getHomeroomStudents(currentUsername), students -> {
+            homeroomModel.setRowCount(0);
+            for (Student s : students) {
+                homeroomModel.addRow(new Object[]{
+                    s.id, s.name, s.major, s.year, s.gpa, s.status.name()
+                });
+            }
+        });
     }
 
     private JMenuBar createMenuBar() {